@@ -18,13 +18,35 @@ repositories {
 	mavenCentral()
 }
 
+// JMH benchmarks live in src/jmh and run against the main classes and their runtime dependencies
+val jmh by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// HTTP load test harness in src/loadtest, runs the application in process
+val loadtest by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.apache.commons:commons-lang3")
 
     runtimeOnly("com.h2database:h2")
+    runtimeOnly("org.hibernate.orm:hibernate-jcache")
+    runtimeOnly("org.ehcache:ehcache::jakarta")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     compileOnly("org.projectlombok:lombok")
     compileOnly("io.soabase.record-builder:record-builder-core:49")
@@ -36,8 +58,59 @@ dependencies {
     testCompileOnly("io.soabase.record-builder:record-builder-core:49")
     testAnnotationProcessor("org.projectlombok:lombok")
     testAnnotationProcessor("io.soabase.record-builder:record-builder-processor:49")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+tasks.test {
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+}
+
+tasks.register<Test>("benchmark") {
+	description = "Runs the throughput benchmarks tagged with @Tag(\"benchmark\")."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
+	testLogging {
+		showStandardStreams = true
+	}
+	outputs.upToDateWhen { false }
+}
+
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH benchmarks in src/jmh and writes JSON results to build/reports/jmh."
+	group = "verification"
+	classpath = jmh.runtimeClasspath
+	mainClass = "org.openjdk.jmh.Main"
+	// one file per version so results can be compared between releases with any JMH visualizer
+	val results = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+	args("-rf", "json", "-rff", results.get().asFile.path)
+	// extra JMH options, e.g. -PjmhArgs="StockBenchmark -p items=1000 -f 1"
+	providers.gradleProperty("jmhArgs").orNull?.let { args(it.trim().split(Regex("\\s+"))) }
+	doFirst {
+		results.get().asFile.parentFile.mkdirs()
+	}
+	outputs.upToDateWhen { false }
+}
+
+tasks.register<JavaExec>("loadTest") {
+	description = "Starts the application on a random port, replays a weighted request mix and writes latency percentiles to build/reports/loadtest."
+	group = "verification"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "co.id.project.dhimas.onlineshop.loadtest.LoadTest"
+	val results = layout.buildDirectory.file("reports/loadtest/results-${project.version}.json")
+	args("--out=" + results.get().asFile.path)
+	// harness and application options, e.g. -PloadTestArgs="--rate=500 --duration=60s --origin.generator.enabled=true"
+	providers.gradleProperty("loadTestArgs").orNull?.let { args(it.trim().split(Regex("\\s+"))) }
+	outputs.upToDateWhen { false }
+}
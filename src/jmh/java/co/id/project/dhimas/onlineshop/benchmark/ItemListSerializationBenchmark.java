@@ -0,0 +1,79 @@
+package co.id.project.dhimas.onlineshop.benchmark;
+
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponseBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Response mapping and JSON writing for one item page, no database involved.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ItemListSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    private List<ItemListResponse.Item> rows;
+
+    private ItemListResponse response;
+
+    // same defaults as the mapper Spring MVC writes responses with
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rows = IntStream.range(0, pageSize)
+                .mapToObj(i -> new ItemListResponse.Item(i + 1, "Item " + i, 1 + i % 100, i * 7 % 1000))
+                .toList();
+        response = map();
+    }
+
+    @Benchmark
+    public ItemListResponse mapping() {
+        return map();
+    }
+
+    @Benchmark
+    public byte[] serialization() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mappingAndSerialization() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+
+    private ItemListResponse map() {
+        return ItemListResponseBuilder.builder()
+                .items(rows)
+                .page(0)
+                .size(pageSize)
+                .totalItems(10_000L)
+                .totalPages(10_000 / pageSize)
+                .hasNext(true)
+                .build();
+    }
+}
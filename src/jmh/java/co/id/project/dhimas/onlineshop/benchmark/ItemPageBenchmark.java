@@ -0,0 +1,41 @@
+package co.id.project.dhimas.onlineshop.benchmark;
+
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import co.id.project.dhimas.onlineshop.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemPageBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public ItemListResponse getItem_firstPage(SeededShop shop) {
+        return shop.bean(ItemService.class).getItem(0, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ItemListResponse getItem_randomPage(SeededShop shop) {
+        // deep offsets get slower with the catalog size, keyset pages should not
+        int page = ThreadLocalRandom.current().nextInt(shop.items / PAGE_SIZE);
+        return shop.bean(ItemService.class).getItem(page, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ItemListResponse getItemAfter_randomCursor(SeededShop shop) {
+        return shop.bean(ItemService.class).getItemAfter(shop.randomItemId(), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,35 @@
+package co.id.project.dhimas.onlineshop.benchmark;
+
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
+import co.id.project.dhimas.onlineshop.service.OrdersService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrdersBenchmark {
+
+    @Benchmark
+    public OrdersResponse createOrder(SeededShop shop) {
+        return shop.bean(OrdersService.class).createOrder(new OrdersRequest(shop.randomItemId(), 1));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrdersResponse createOrder_contended(SeededShop shop) {
+        // several writers at once, the path the order lanes and the conditional stock update are for
+        return shop.bean(OrdersService.class).createOrder(new OrdersRequest(shop.randomItemId(), 1));
+    }
+}
@@ -0,0 +1,70 @@
+package co.id.project.dhimas.onlineshop.benchmark;
+
+import co.id.project.dhimas.onlineshop.OnlineShopServiceApplication;
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Application context on its own in-memory H2, filled by the dataset generator with {@code items} items,
+ * a Zipf skewed order history and its ledger. Every item gets enough stock that createOrder never runs out.
+ */
+@State(Scope.Benchmark)
+public class SeededShop {
+
+    static final int STOCK_PER_ITEM = 1_000_000;
+    static final int ORDERS_PER_ITEM = 10;
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    ConfigurableApplicationContext context;
+
+    int[] itemIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(OnlineShopServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh-" + items + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.jmx.enabled=false",
+                        "--origin.generator.enabled=true",
+                        "--origin.generator.items=" + items,
+                        "--origin.generator.orders=" + items * ORDERS_PER_ITEM,
+                        // large top-ups, createOrder must not run out during a run
+                        "--origin.generator.restock-qty=" + STOCK_PER_ITEM
+                );
+
+        // ids come from the sequence so read them back, the data.sql items only have a handful of stock
+        itemIds = bean(ItemRepository.class).findAllWithStockAfter(0, Limit.of(items + 100)).stream()
+                .filter(item -> item.remainingStock() >= STOCK_PER_ITEM / 2)
+                .mapToInt(ItemListResponse.Item::id)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int randomItemId() {
+        return itemIds[ThreadLocalRandom.current().nextInt(itemIds.length)];
+    }
+}
@@ -0,0 +1,26 @@
+package co.id.project.dhimas.onlineshop.benchmark;
+
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StockBenchmark {
+
+    @Benchmark
+    public int remainingStock(SeededShop shop) {
+        // random item per call, so the stock cache sees the whole catalog and not one hot row
+        return shop.bean(StockService.class).remainingStock(shop.randomItemId());
+    }
+}
@@ -0,0 +1,72 @@
+package co.id.project.dhimas.onlineshop.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every latency of one endpoint, kept raw so the percentiles are exact and not bucketed.
+ */
+public class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    /**
+     * @param status HTTP status, 0 when the request did not get a response
+     */
+    public synchronized void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        statuses.merge(status, 1, Integer::sum);
+    }
+
+    public synchronized Summary summary(double seconds) {
+        var sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        int errors = statuses.entrySet().stream()
+                .filter(status -> status.getKey() < 200 || status.getKey() >= 300)
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+
+        return new Summary(
+                count,
+                errors,
+                new TreeMap<>(statuses),
+                count / seconds,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)),
+                millis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    // nearest rank
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * @param errors responses outside 2xx plus requests that failed without one
+     */
+    public record Summary(int requests,
+                          int errors,
+                          Map<Integer, Integer> statuses,
+                          double throughput,
+                          double p50Ms,
+                          double p99Ms,
+                          double p999Ms,
+                          double maxMs) {
+    }
+}
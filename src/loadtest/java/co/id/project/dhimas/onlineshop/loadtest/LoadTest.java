@@ -0,0 +1,176 @@
+package co.id.project.dhimas.onlineshop.loadtest;
+
+import co.id.project.dhimas.onlineshop.OnlineShopServiceApplication;
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.Zipf;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts the application on a random port and sends the request mix at a fixed rate (open model),
+ * then writes throughput and latency percentiles per request name as JSON.
+ * <p>
+ * Harness options: --rate (requests per second), --duration, --warmup, --script, --out, --seed, --item-skew.
+ * Every other argument goes to the application, e.g. --origin.generator.enabled=true for a large dataset.
+ */
+public final class LoadTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new LinkedHashMap<String, String>();
+        var appArgs = new ArrayList<String>(List.of("--server.port=0", "--spring.jmx.enabled=false"));
+        for (var arg : args) {
+            var option = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : "";
+            if (List.of("rate", "duration", "warmup", "script", "out", "seed", "item-skew").contains(option)) {
+                options.put(option, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        var duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        var warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        var out = Path.of(options.getOrDefault("out", "build/reports/loadtest/results.json"));
+        var random = new SplittableRandom(Long.parseLong(options.getOrDefault("seed", "42")));
+        double itemSkew = Double.parseDouble(options.getOrDefault("item-skew", "1.0"));
+
+        var objectMapper = new ObjectMapper();
+        var mix = readMix(options.get("script"), objectMapper);
+
+        try (var context = new SpringApplicationBuilder(OnlineShopServiceApplication.class)
+                .run(appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var base = URI.create("http://localhost:" + port);
+
+            int[] itemIds = context.getBean(ItemRepository.class).findAllWithStockAfter(0, Limit.unlimited()).stream()
+                    .mapToInt(ItemListResponse.Item::id)
+                    .toArray();
+            // hot items get most of the traffic, like the generated order history
+            var items = new Zipf(itemIds.length, itemSkew, random);
+            int pages = Math.max(itemIds.length / PAGE_SIZE, 1);
+
+            var recorders = new LinkedHashMap<String, LatencyRecorder>();
+            mix.steps().forEach(step -> recorders.putIfAbsent(step.name(), new LatencyRecorder()));
+            var total = new LatencyRecorder();
+
+            var executor = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors(), 4));
+            var client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            var inFlight = new AtomicInteger();
+
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+
+            for (long i = 0; ; i++) {
+                long intended = start + i * interval;
+                if (intended >= end) {
+                    break;
+                }
+
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                var step = mix.pick(random);
+                var request = step.toRequest(base, Map.of(
+                        "itemId", itemIds[items.next(random)],
+                        "page", random.nextInt(pages)), REQUEST_TIMEOUT);
+                boolean measured = intended >= measureFrom;
+
+                inFlight.incrementAndGet();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            // from the scheduled send time, so a stalled server also delays the requests queued behind it
+                            long latency = System.nanoTime() - intended;
+                            if (measured) {
+                                int status = response == null ? 0 : response.statusCode();
+                                recorders.get(step.name()).record(latency, status);
+                                total.record(latency, status);
+                            }
+                            inFlight.decrementAndGet();
+                        });
+            }
+
+            long drainUntil = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+            while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            executor.shutdownNow();
+
+            double seconds = duration.toNanos() / 1_000_000_000.0;
+            var endpoints = new LinkedHashMap<String, LatencyRecorder.Summary>();
+            recorders.forEach((name, recorder) -> endpoints.put(name, recorder.summary(seconds)));
+            var report = new Report(rate, seconds, warmup.toNanos() / 1_000_000_000.0, itemIds.length,
+                    endpoints, total.summary(seconds));
+
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+
+            endpoints.forEach((name, summary) -> System.out.printf(
+                    "%-20s %7d req %5d err %8.1f req/s  p50 %8.3f ms  p99 %8.3f ms  p999 %8.3f ms%n",
+                    name, summary.requests(), summary.errors(), summary.throughput(),
+                    summary.p50Ms(), summary.p99Ms(), summary.p999Ms()));
+            System.out.println("results written to " + out.toAbsolutePath());
+        }
+    }
+
+    private static RequestMix readMix(String script, ObjectMapper objectMapper) throws IOException {
+        if (script != null) {
+            try (var reader = Files.newBufferedReader(new File(script).toPath())) {
+                return RequestMix.read(reader, objectMapper);
+            }
+        }
+
+        try (var in = LoadTest.class.getResourceAsStream("/loadtest/mix.jsonl");
+             var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return RequestMix.read(reader, objectMapper);
+        }
+    }
+
+    /**
+     * @param endpoints summaries by request name, only requests scheduled after the warmup are counted
+     */
+    public record Report(int rate,
+                         double durationSeconds,
+                         double warmupSeconds,
+                         int items,
+                         Map<String, LatencyRecorder.Summary> endpoints,
+                         LatencyRecorder.Summary total) {
+    }
+}
@@ -0,0 +1,115 @@
+package co.id.project.dhimas.onlineshop.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted request templates read from a JSONL script, one request per line:
+ * <pre>
+ * {"name": "order.create", "weight": 20, "method": "POST", "path": "/api/order",
+ *  "body": {"data": {"itemId": "{itemId}", "qty": 1}}}
+ * </pre>
+ * {@code {itemId}} and {@code {page}} are filled in per request, a quoted placeholder in the body becomes a number.
+ */
+public class RequestMix {
+
+    private final List<Step> steps;
+    // cumulative weights, picked by binary search
+    private final long[] upTo;
+
+    RequestMix(List<Step> steps) {
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("request mix is empty");
+        }
+
+        this.steps = List.copyOf(steps);
+        this.upTo = new long[steps.size()];
+        long total = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            total += steps.get(i).weight();
+            upTo[i] = total;
+        }
+    }
+
+    public static RequestMix read(BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+        var steps = new ArrayList<Step>();
+        int lineNo = 0;
+
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.hasNonNull("name") || !node.hasNonNull("path")) {
+                throw new IllegalArgumentException("line " + lineNo + ": name and path are required");
+            }
+
+            int weight = node.path("weight").asInt(1);
+            if (weight < 1) {
+                throw new IllegalArgumentException("line " + lineNo + ": weight must be at least 1");
+            }
+
+            steps.add(new Step(
+                    node.get("name").asText(),
+                    weight,
+                    node.path("method").asText("GET").toUpperCase(),
+                    node.get("path").asText(),
+                    node.hasNonNull("body") ? objectMapper.writeValueAsString(node.get("body")) : null));
+        }
+
+        return new RequestMix(steps);
+    }
+
+    public List<Step> steps() {
+        return steps;
+    }
+
+    public Step pick(SplittableRandom random) {
+        long draw = random.nextLong(upTo[upTo.length - 1]);
+        for (int i = 0; i < upTo.length; i++) {
+            if (draw < upTo[i]) {
+                return steps.get(i);
+            }
+        }
+        return steps.get(steps.size() - 1);
+    }
+
+    public record Step(String name, int weight, String method, String path, String body) {
+
+        public HttpRequest toRequest(URI base, Map<String, Object> values, Duration timeout) {
+            var builder = HttpRequest.newBuilder(base.resolve(fill(path, values)))
+                    .timeout(timeout)
+                    .header("Accept", "application/json");
+
+            if (body == null) {
+                return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+            }
+
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(fill(body, values)))
+                    .build();
+        }
+
+        static String fill(String template, Map<String, Object> values) {
+            var filled = template;
+            for (var value : values.entrySet()) {
+                var placeholder = "{" + value.getKey() + "}";
+                filled = filled.replace("\"" + placeholder + "\"", String.valueOf(value.getValue()))
+                        .replace(placeholder, String.valueOf(value.getValue()));
+            }
+            return filled;
+        }
+    }
+}
@@ -5,7 +5,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
-@ConfigurationPropertiesScan("co.id.project.dhimas.onlineshop.exception.config")
+@ConfigurationPropertiesScan({
+		"co.id.project.dhimas.onlineshop.exception.config",
+		"co.id.project.dhimas.onlineshop.config"
+})
 public class OnlineShopServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,40 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import co.id.project.dhimas.onlineshop.service.function.BatchLoader;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<Integer, Integer> stockCache(StockProperties stockProperties) {
+        return new BoundedCache<>("stock",
+                stockProperties.cache().maxSize(),
+                stockProperties.cache().ttl());
+    }
+
+    @Bean
+    public SingleFlight<Integer, Integer> stockReads() {
+        return new SingleFlight<>("stock");
+    }
+
+    @Bean
+    public BatchLoader<Integer, Integer> stockLookups(StockProperties stockProperties) {
+        return new BatchLoader<>("stock",
+                stockProperties.batch().window(),
+                stockProperties.batch().maxSize());
+    }
+
+    @Bean
+    public BoundedCache<Integer, Optional<ItemCatalog.Snapshot>> itemCache(ItemProperties itemProperties) {
+        return new BoundedCache<>("item",
+                itemProperties.cache().maxSize(),
+                itemProperties.cache().ttl());
+    }
+}
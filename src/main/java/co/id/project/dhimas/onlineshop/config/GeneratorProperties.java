@@ -0,0 +1,46 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties("origin.generator")
+public record GeneratorProperties(
+        // fill the database with a synthetic dataset on startup, on top of data.sql
+        @DefaultValue("false")
+        boolean enabled,
+        // same seed and sizes give the same rows
+        @DefaultValue("42")
+        long seed,
+        @Min(1)
+        @DefaultValue("100000")
+        int items,
+        // every order also writes its W ledger row, like createOrder
+        @Min(0)
+        @DefaultValue("1000000")
+        int orders,
+        // item popularity skew for orders, 0 is uniform and around 1 looks like a real catalog
+        @DecimalMin("0.0")
+        @DefaultValue("1.0")
+        double zipfExponent,
+        @Min(1)
+        @DefaultValue("5")
+        int maxOrderQty,
+        // T row size: every item starts with one, and gets another when an order would run it dry.
+        // W rows per T row come out around restockQty / average order qty for the popular items
+        @Min(1)
+        @DefaultValue("100")
+        int restockQty,
+        // rows committed per transaction
+        @Min(1)
+        @DefaultValue("10000")
+        int chunkSize,
+        // rows per JDBC batch inside a chunk
+        @Min(1)
+        @DefaultValue("1000")
+        int batchSize
+) {
+}
@@ -0,0 +1,24 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties("origin.import")
+public record ImportProperties(
+        // valid rows committed per transaction
+        @Min(1)
+        @DefaultValue("5000")
+        int chunkSize,
+        // rows per JDBC batch inside a chunk
+        @Min(1)
+        @DefaultValue("1000")
+        int batchSize,
+        // rejected rows listed in the report, the rest are only counted
+        @Min(0)
+        @DefaultValue("1000")
+        int maxErrors
+) {
+}
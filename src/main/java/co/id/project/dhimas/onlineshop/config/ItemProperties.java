@@ -0,0 +1,27 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties("origin.item")
+public record ItemProperties(
+        @Valid
+        @DefaultValue
+        Cache cache
+) {
+
+    public record Cache(
+            @Min(1)
+            @DefaultValue("10000")
+            int maxSize,
+            // item writes evict right away, the TTL only bounds writes made elsewhere
+            @DefaultValue("10m")
+            Duration ttl
+    ) {}
+}
@@ -0,0 +1,17 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterFilter stockNotEnoughItemLimit(MetricsProperties metricsProperties) {
+        // one series per item, capped so a sell-out across the whole catalog does not flood the registry
+        return MeterFilter.maximumAllowableTags(ShopMetrics.STOCK_NOT_ENOUGH, ShopMetrics.ITEM_TAG,
+                metricsProperties.maxItemTags(), MeterFilter.deny());
+    }
+}
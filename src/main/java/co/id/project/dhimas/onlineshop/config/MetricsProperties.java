@@ -0,0 +1,16 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties("origin.metrics")
+public record MetricsProperties(
+        // distinct item ids tagged on per item meters, rejections for further items are not recorded
+        @Min(1)
+        @DefaultValue("1000")
+        int maxItemTags
+) {
+}
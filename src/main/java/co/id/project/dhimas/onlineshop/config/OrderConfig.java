@@ -0,0 +1,42 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrderStatusResponse;
+import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.SerialLanes;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OrderConfig {
+
+    @Bean
+    public SerialLanes<OrdersRequest, OrdersResponse> orderLanes(OrderProperties orderProperties) {
+        var sequencer = orderProperties.sequencer();
+
+        // no lanes and no threads when the sequencer is off
+        return new SerialLanes<>("order",
+                sequencer.enabled() ? sequencer.lanes() : 0,
+                sequencer.maxGroupSize(),
+                sequencer.queueCapacity());
+    }
+
+    @Bean
+    public SerialLanes<Orders, OrdersResponse> orderIntake(OrderProperties orderProperties) {
+        var intake = orderProperties.intake();
+
+        // no writer threads when orders are created in the request
+        return new SerialLanes<>("intake",
+                intake.enabled() ? intake.writers() : 0,
+                intake.maxGroupSize(),
+                intake.queueCapacity());
+    }
+
+    @Bean
+    public BoundedCache<String, OrderStatusResponse> orderOutcomes(OrderProperties orderProperties) {
+        var intake = orderProperties.intake();
+        return new BoundedCache<>("order-outcome", intake.maxOutcomes(), intake.outcomeTtl());
+    }
+}
@@ -0,0 +1,120 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties("origin.order")
+public record OrderProperties(
+        @Valid
+        @DefaultValue
+        Sequencer sequencer,
+        @Valid
+        @DefaultValue
+        Reservation reservation,
+        @Valid
+        @DefaultValue
+        Admission admission,
+        @Valid
+        @DefaultValue
+        Intake intake
+) {
+
+    public record Sequencer(
+            // createOrder goes through per-item lanes instead of a conditional update per order
+            @DefaultValue("false")
+            boolean enabled,
+            // threads, every item id is always handled by the same one
+            @Min(1)
+            @DefaultValue("8")
+            int lanes,
+            // orders queued behind a busy lane are written together in one transaction
+            @Min(1)
+            @DefaultValue("50")
+            int maxGroupSize,
+            @Min(1)
+            @DefaultValue("10000")
+            int queueCapacity
+    ) {}
+
+    public record Reservation(
+            // how long stock is held for checkout before it is released on its own
+            @DefaultValue("10m")
+            Duration ttl,
+            // expiry precision, a hold is released at most one tick late
+            @DefaultValue("100ms")
+            Duration tick,
+            // buckets per turn of the wheel, rounded up to a power of two
+            @Min(1)
+            @DefaultValue("512")
+            int wheelSize,
+            // how often expired holds of any node are given back, covers nodes that stopped before their expiry
+            @DefaultValue("1m")
+            Duration reclaimInterval
+    ) {}
+
+    public record Admission(
+            // createOrder over these limits fails fast with 429 and Retry-After
+            @DefaultValue("false")
+            boolean enabled,
+            // orders per second over all items
+            @Min(1)
+            @DefaultValue("1000")
+            int globalRate,
+            // orders let through at once after a quiet period
+            @Min(1)
+            @DefaultValue("200")
+            int globalBurst,
+            // orders per second of a single item
+            @Min(1)
+            @DefaultValue("100")
+            int itemRate,
+            @Min(1)
+            @DefaultValue("20")
+            int itemBurst,
+            // concurrent orders at start, from there the limit follows the latency of the orders
+            @Min(1)
+            @DefaultValue("20")
+            int initialLimit,
+            @Min(1)
+            @DefaultValue("4")
+            int minLimit,
+            @Min(1)
+            @DefaultValue("200")
+            int maxLimit,
+            // an order slower than this many times the best recent one means the database is queueing
+            @DecimalMin("1.0")
+            @DefaultValue("3.0")
+            double latencyTolerance
+    ) {}
+
+    public record Intake(
+            // POST /api/order only queues the order and answers 202, writers commit the queue in groups
+            @DefaultValue("false")
+            boolean enabled,
+            // threads, orders of one item always go to the same writer
+            @Min(1)
+            @DefaultValue("2")
+            int writers,
+            // orders committed together in one transaction
+            @Min(1)
+            @DefaultValue("200")
+            int maxGroupSize,
+            // per writer, orders over it are answered with 429
+            @Min(1)
+            @DefaultValue("10000")
+            int queueCapacity,
+            // how long the outcome of a queued order can be polled from memory
+            @DefaultValue("10m")
+            Duration outcomeTtl,
+            @Min(1)
+            @DefaultValue("100000")
+            int maxOutcomes
+    ) {}
+}
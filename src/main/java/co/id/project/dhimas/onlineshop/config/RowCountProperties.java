@@ -0,0 +1,16 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties("origin.row-count")
+public record RowCountProperties(
+        // age after which a total is counted again, bounds the drift from other nodes and missed writes
+        @DefaultValue("1m")
+        Duration ttl
+) {
+}
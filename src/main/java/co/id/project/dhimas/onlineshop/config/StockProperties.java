@@ -0,0 +1,63 @@
+package co.id.project.dhimas.onlineshop.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties("origin.stock")
+public record StockProperties(
+        @Valid
+        @DefaultValue
+        Cache cache,
+        @Valid
+        @DefaultValue
+        Batch batch,
+        @Valid
+        @DefaultValue
+        Lease lease
+) {
+
+    public record Cache(
+            // item ids kept, least recently read are evicted first
+            @Min(1)
+            @DefaultValue("10000")
+            int maxSize,
+            // upper bound on how old a cached balance can be
+            @DefaultValue("5s")
+            Duration ttl
+    ) {}
+
+    public record Batch(
+            // how long the first lookup waits for others to join, 0 turns batching off
+            @DefaultValue("2ms")
+            Duration window,
+            // a full batch is queried right away without waiting out the window
+            @Min(1)
+            @DefaultValue("100")
+            int maxSize
+    ) {}
+
+    public record Lease(
+            // createOrder sells from a block of stock leased to this node instead of the shared balance row
+            @DefaultValue("false")
+            boolean enabled,
+            // must differ per instance, a random id is used when empty
+            @DefaultValue("")
+            String nodeId,
+            // taken from the shared balance at once when the lease of an item runs out
+            @Min(1)
+            @DefaultValue("50")
+            int blockSize,
+            // other nodes give the lease back to the balance once it is this old without a renewal
+            @DefaultValue("30s")
+            Duration ttl,
+            // unused part of a lease not sold from for this long goes back to the balance
+            @DefaultValue("10s")
+            Duration idleTimeout
+    ) {}
+}
@@ -1,14 +1,28 @@
 package co.id.project.dhimas.onlineshop.controller;
 
 import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponse;
 import co.id.project.dhimas.onlineshop.model.response.InventoryListResponse;
 import co.id.project.dhimas.onlineshop.model.response.InventoryResponse;
 import co.id.project.dhimas.onlineshop.service.InventoryService;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import co.id.project.dhimas.onlineshop.utils.PageLimits;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
+@Validated
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
@@ -16,10 +30,38 @@ public class InventoryController {
     private final InventoryService inventoryService;
 
     @GetMapping
-    public InventoryListResponse getAllInventories(@RequestParam(defaultValue = "0") int page,
-                                             @RequestParam(defaultValue = "2") int size
+    public InventoryListResponse getAllInventories(@RequestParam(defaultValue = "0") @Min(0) int page,
+                                             @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int size,
+                                             @RequestParam(required = false) @Min(0) Integer after,
+                                             @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int limit,
+                                             @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        return inventoryService.getInventory(page, size);
+        // keyset mode when a cursor is given
+        if (after != null) {
+            return inventoryService.getInventoryAfter(after, limit);
+        }
+
+        return inventoryService.getInventory(page, size, withTotal);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(defaultValue = "ndjson") String format) {
+        var exportFormat = ExportFormat.from(format);
+        var disposition = ContentDisposition.attachment()
+                .filename("inventory." + exportFormat.getExtension())
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(inventoryService.exportInventory(exportFormat));
+    }
+
+    // form posts would hand the body to the parameter parser, so send it as text/csv or application/x-ndjson
+    @PostMapping(value = "/import", consumes = "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ImportResponse importInventory(@RequestParam(defaultValue = "ndjson") String format, InputStream body) {
+        // the request body is the file itself, parsed while it is being uploaded
+        return inventoryService.importInventory(ExportFormat.from(format), body);
     }
 
     @GetMapping("/{id}")
@@ -41,4 +83,9 @@ public class InventoryController {
     public void deleteInventory(@PathVariable int id) {
         inventoryService.deleteInventory(id);
     }
+
+    @PostMapping("/stock/rebuild")
+    public void rebuildStock() {
+        inventoryService.rebuildStock();
+    }
 }
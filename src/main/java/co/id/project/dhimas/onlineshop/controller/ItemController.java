@@ -1,14 +1,28 @@
 package co.id.project.dhimas.onlineshop.controller;
 
 import co.id.project.dhimas.onlineshop.model.request.ItemRequest;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponse;
 import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
 import co.id.project.dhimas.onlineshop.model.response.ItemResponse;
 import co.id.project.dhimas.onlineshop.service.ItemService;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import co.id.project.dhimas.onlineshop.utils.PageLimits;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
+@Validated
 @RequestMapping("/api/items")
 @RequiredArgsConstructor
 public class ItemController {
@@ -16,10 +30,38 @@ public class ItemController {
     private final ItemService itemService;
 
     @GetMapping
-    public ItemListResponse getAllItems(@RequestParam(defaultValue = "0") int page,
-                                        @RequestParam(defaultValue = "2") int size
+    public ItemListResponse getAllItems(@RequestParam(defaultValue = "0") @Min(0) int page,
+                                        @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int size,
+                                        @RequestParam(required = false) @Min(0) Integer after,
+                                        @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int limit,
+                                        @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        return itemService.getItem(page, size);
+        // keyset mode when a cursor is given
+        if (after != null) {
+            return itemService.getItemAfter(after, limit);
+        }
+
+        return itemService.getItem(page, size, withTotal);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "ndjson") String format) {
+        var exportFormat = ExportFormat.from(format);
+        var disposition = ContentDisposition.attachment()
+                .filename("items." + exportFormat.getExtension())
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(itemService.exportItems(exportFormat));
+    }
+
+    // form posts would hand the body to the parameter parser, so send it as text/csv or application/x-ndjson
+    @PostMapping(value = "/import", consumes = "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ImportResponse importItems(@RequestParam(defaultValue = "ndjson") String format, InputStream body) {
+        // the request body is the file itself, parsed while it is being uploaded
+        return itemService.importItems(ExportFormat.from(format), body);
     }
 
     @GetMapping("/{id}")
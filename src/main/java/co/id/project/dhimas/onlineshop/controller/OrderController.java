@@ -1,14 +1,31 @@
 package co.id.project.dhimas.onlineshop.controller;
 
+import co.id.project.dhimas.onlineshop.model.request.OrdersBatchRequest;
 import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import co.id.project.dhimas.onlineshop.model.response.OrderStatusResponse;
+import co.id.project.dhimas.onlineshop.model.response.OrdersBatchResponse;
 import co.id.project.dhimas.onlineshop.model.response.OrdersListResponse;
 import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
 import co.id.project.dhimas.onlineshop.service.OrdersService;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import co.id.project.dhimas.onlineshop.utils.PageLimits;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
 
 @RestController
+@Validated
 @RequestMapping("/api/order")
 @RequiredArgsConstructor
 public class OrderController {
@@ -16,10 +33,31 @@ public class OrderController {
     private final OrdersService ordersService;
 
     @GetMapping
-    public OrdersListResponse getAllOrders(@RequestParam(defaultValue = "0") int page,
-                                           @RequestParam(defaultValue = "2") int size
+    public OrdersListResponse getAllOrders(@RequestParam(defaultValue = "0") @Min(0) int page,
+                                           @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int size,
+                                           @RequestParam(required = false) @Min(0) Integer after,
+                                           @RequestParam(defaultValue = "2") @Min(1) @Max(PageLimits.MAX_SIZE) int limit,
+                                           @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        return ordersService.getOrder(page, size);
+        // keyset mode when a cursor is given
+        if (after != null) {
+            return ordersService.getOrderAfter(after, limit);
+        }
+
+        return ordersService.getOrder(page, size, withTotal);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format) {
+        var exportFormat = ExportFormat.from(format);
+        var disposition = ContentDisposition.attachment()
+                .filename("orders." + exportFormat.getExtension())
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(ordersService.exportOrders(exportFormat));
     }
 
     @GetMapping("/{orderNo}")
@@ -27,9 +65,27 @@ public class OrderController {
         return ordersService.getOrder(orderNo);
     }
 
+    @GetMapping("/{orderNo}/status")
+    public OrderStatusResponse getOrderStatus(@PathVariable String orderNo) {
+        return ordersService.getOrderStatus(orderNo);
+    }
+
     @PostMapping
-    public OrdersResponse createOrder(@Valid @RequestBody OrdersRequest ordersRequest) {
-        return ordersService.createOrder(ordersRequest);
+    public ResponseEntity<BaseDataResponse> createOrder(@Valid @RequestBody OrdersRequest ordersRequest) {
+        if (ordersService.asyncIntake()) {
+            // queued only, the outcome is polled at the status url
+            var queued = ordersService.queueOrder(ordersRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/order/" + queued.orderNo() + "/status"))
+                    .body(queued);
+        }
+
+        return ResponseEntity.ok(ordersService.createOrder(ordersRequest));
+    }
+
+    @PostMapping("/batch")
+    public OrdersBatchResponse createOrders(@Valid @RequestBody OrdersBatchRequest request) {
+        return ordersService.createOrders(request);
     }
 
     @PutMapping("/{orderNo}")
@@ -0,0 +1,32 @@
+package co.id.project.dhimas.onlineshop.controller;
+
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
+import co.id.project.dhimas.onlineshop.model.response.ReservationResponse;
+import co.id.project.dhimas.onlineshop.service.ReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/order/reservation")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    public ReservationResponse reserve(@Valid @RequestBody OrdersRequest ordersRequest) {
+        return reservationService.reserve(ordersRequest);
+    }
+
+    @PostMapping("/{reservationId}/confirm")
+    public OrdersResponse confirm(@PathVariable String reservationId) {
+        return reservationService.confirm(reservationId);
+    }
+
+    @DeleteMapping("/{reservationId}")
+    public void release(@PathVariable String reservationId) {
+        reservationService.release(reservationId);
+    }
+}
@@ -0,0 +1,39 @@
+package co.id.project.dhimas.onlineshop.controller;
+
+import co.id.project.dhimas.onlineshop.model.response.AdmissionStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.CacheStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.CoalescingStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.HibernateStatsResponse;
+import co.id.project.dhimas.onlineshop.service.StatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping("/cache")
+    public CacheStatsResponse getCacheStats() {
+        return statsService.getCacheStats();
+    }
+
+    @GetMapping("/coalescing")
+    public CoalescingStatsResponse getCoalescingStats() {
+        return statsService.getCoalescingStats();
+    }
+
+    @GetMapping("/admission")
+    public AdmissionStatsResponse getAdmissionStats() {
+        return statsService.getAdmissionStats();
+    }
+
+    @GetMapping("/hibernate")
+    public HibernateStatsResponse getHibernateStats() {
+        return statsService.getHibernateStats();
+    }
+}
@@ -5,6 +5,7 @@ import co.id.project.dhimas.onlineshop.exception.config.ServiceProperties;
 import co.id.project.dhimas.onlineshop.utils.ErrorType;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -23,8 +24,20 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<ErrorResponse> handleBaseException(BaseException ex) {
-        ErrorType type = ex.getErrorType();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse(ex.getErrorType()));
+    }
+
+    @ExceptionHandler(ThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleThrottled(ThrottledException ex) {
+        // whole seconds, rounded up so a client never comes back before there is room
+        long seconds = Math.max((ex.getRetryAfter().toMillis() + 999) / 1000, 1);
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(errorResponse(ex.getErrorType()));
+    }
 
+    private ErrorResponse errorResponse(ErrorType type) {
         String paddedServiceCode = String.format("%03d", serviceProperties.serviceCode());
 
         String finalErrorCode = serviceProperties.prefix()
@@ -33,13 +46,11 @@ public class GlobalExceptionHandler {
                 + "-"
                 + type.getErrorCode();
 
-        ErrorResponse body = ErrorResponseBuilder.builder()
+        return ErrorResponseBuilder.builder()
                 .errorCode(finalErrorCode)
                 .errorDesc(type.getMessage())
                 .timestamp(ZonedDateTime.now())
                 .build();
-
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
     @ExceptionHandler({
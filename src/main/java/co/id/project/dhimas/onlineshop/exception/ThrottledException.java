@@ -0,0 +1,17 @@
+package co.id.project.dhimas.onlineshop.exception;
+
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ThrottledException extends BaseException {
+
+    private final Duration retryAfter;
+
+    public ThrottledException(Duration retryAfter) {
+        super(ErrorType.ORDER_THROTTLED);
+        this.retryAfter = retryAfter;
+    }
+}
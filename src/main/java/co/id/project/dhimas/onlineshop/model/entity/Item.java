@@ -2,8 +2,12 @@ package co.id.project.dhimas.onlineshop.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -12,7 +16,8 @@ import lombok.*;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private int id;
 
@@ -21,4 +26,9 @@ public class Item {
 
     @Column(nullable = false)
     private int price;
+
+    // bumped on every update, concurrent updates of one item fail instead of overwriting each other
+    @Version
+    @Column(nullable = false)
+    private int version;
 }
@@ -0,0 +1,30 @@
+package co.id.project.dhimas.onlineshop.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockBalance {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private int itemId;
+
+    @Column(nullable = false)
+    private int qty;
+
+    // part of qty reserved by open stock_reservation rows, not available to orders of others
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int held;
+
+    public StockBalance(int itemId, int qty) {
+        this(itemId, qty, 0);
+    }
+}
@@ -0,0 +1,43 @@
+package co.id.project.dhimas.onlineshop.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+// part of an item's stock taken out of stock_balance by one node, sold by that node only
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(StockLease.Key.class)
+public class StockLease {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private int itemId;
+
+    @Id
+    @Column(length = 64, nullable = false, updatable = false)
+    private String nodeId;
+
+    // not sold yet
+    @Column(nullable = false)
+    private int qty;
+
+    // other nodes give the qty back to stock_balance after this, the owner keeps moving it forward
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private int itemId;
+        private String nodeId;
+    }
+}
@@ -0,0 +1,30 @@
+package co.id.project.dhimas.onlineshop.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// stock held for checkout, counted in stock_balance.held until it is confirmed, released or expired
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @Column(length = 36, nullable = false, updatable = false)
+    private String id;
+
+    @Column(nullable = false, updatable = false)
+    private int itemId;
+
+    @Column(nullable = false, updatable = false)
+    private int qty;
+
+    // any node gives the hold back after this, the node that took it usually does so first
+    @Column(nullable = false, updatable = false)
+    private Instant expiresAt;
+}
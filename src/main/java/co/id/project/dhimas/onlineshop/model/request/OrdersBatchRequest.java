@@ -0,0 +1,28 @@
+package co.id.project.dhimas.onlineshop.model.request;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataRequest;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@RecordBuilder
+public record OrdersBatchRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@Valid Order> orders
+) implements BaseDataRequest {
+
+    @RecordBuilder
+    public record Order(
+            @NotNull
+            int itemId,
+            @NotNull @Min(1)
+            int qty
+    ) {
+    }
+}
@@ -2,13 +2,14 @@ package co.id.project.dhimas.onlineshop.model.request;
 
 import co.id.project.dhimas.onlineshop.base.data.BaseDataRequest;
 import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 @RecordBuilder
 public record OrdersRequest(
         @NotNull
         int itemId,
-        @NotNull
+        @NotNull @Min(1)
         int qty
 ) implements BaseDataRequest {
 }
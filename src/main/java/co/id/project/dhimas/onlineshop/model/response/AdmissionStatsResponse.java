@@ -0,0 +1,19 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+
+@RecordBuilder
+public record AdmissionStatsResponse(
+        boolean enabled,
+        long admitted,
+        // over the rate of the item or of all items
+        long throttled,
+        // over the concurrency limit
+        long shed,
+        int limit,
+        int inFlight,
+        // best recent latency of an admitted order, what the limit compares against
+        long baselineMicros
+) implements BaseDataResponse {
+}
@@ -0,0 +1,28 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+@RecordBuilder
+public record CacheStatsResponse(
+        List<Cache> caches
+) implements BaseDataResponse {
+
+    @RecordBuilder
+    public record Cache(
+            @NotBlank
+            String name,
+            int size,
+            int maxSize,
+            long hits,
+            long misses,
+            // dropped because the cache was full
+            long evictions,
+            // dropped because the TTL passed
+            long expirations
+    ) {
+    }
+}
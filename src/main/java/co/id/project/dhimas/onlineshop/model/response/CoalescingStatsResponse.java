@@ -0,0 +1,40 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+@RecordBuilder
+public record CoalescingStatsResponse(
+        List<Group> groups,
+        List<Batch> batches
+) implements BaseDataResponse {
+
+    @RecordBuilder
+    public record Group(
+            @NotBlank
+            String name,
+            long calls,
+            // calls that ran the query themselves
+            long executions,
+            // calls that took the result of a query already running
+            long coalesced,
+            int inFlight
+    ) {
+    }
+
+    @RecordBuilder
+    public record Batch(
+            @NotBlank
+            String name,
+            long calls,
+            // loader calls, one per batch
+            long batches,
+            // distinct keys over all batches
+            long keys,
+            long largestBatch
+    ) {
+    }
+}
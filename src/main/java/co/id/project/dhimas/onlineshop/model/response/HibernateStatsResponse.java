@@ -0,0 +1,29 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+@RecordBuilder
+public record HibernateStatsResponse(
+        // entities read from the database
+        long entityLoadCount,
+        long queryExecutionCount,
+        long secondLevelCacheHitCount,
+        long secondLevelCacheMissCount,
+        long secondLevelCachePutCount,
+        List<Region> regions
+) implements BaseDataResponse {
+
+    @RecordBuilder
+    public record Region(
+            @NotBlank
+            String name,
+            long hits,
+            long misses,
+            long puts
+    ) {
+    }
+}
@@ -0,0 +1,26 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@RecordBuilder
+public record ImportResponse(
+        int total,
+        int imported,
+        int rejected,
+        List<Error> errors,
+        // true when more rows were rejected than listed in errors
+        boolean errorsTruncated
+) implements BaseDataResponse {
+
+    @RecordBuilder
+    public record Error(
+            @NotNull
+            int row,
+            String errorDesc
+    ) {
+    }
+}
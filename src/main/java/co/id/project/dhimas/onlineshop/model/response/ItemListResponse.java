@@ -13,10 +13,13 @@ import java.util.List;
 public record ItemListResponse(
         @NotBlank
         List<Item> items,
-        int page,
+        Integer page,
         int size,
         Long totalItems,
-        int totalPages
+        Integer totalPages,
+        Boolean hasNext,
+        // keyset mode only: pass as ?after= to get the next page
+        Integer nextCursor
 ) implements BaseDataResponse {
 
     @RecordBuilder
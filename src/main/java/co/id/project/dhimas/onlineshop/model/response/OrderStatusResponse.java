@@ -0,0 +1,24 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import co.id.project.dhimas.onlineshop.utils.OrderStatus;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+@RecordBuilder
+public record OrderStatusResponse(
+        @NotBlank
+        String orderNo,
+        @NotNull
+        int itemId,
+        @NotNull
+        int qty,
+        @NotNull
+        int price,
+        @NotNull
+        OrderStatus status,
+        // why a REJECTED order was not created
+        String errorDesc
+) implements BaseDataResponse {
+}
@@ -0,0 +1,32 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@RecordBuilder
+public record OrdersBatchResponse(
+        List<Result> results,
+        int created,
+        int rejected
+) implements BaseDataResponse {
+
+    @RecordBuilder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(
+            @NotNull
+            int line,
+            String status,
+            String orderNo,
+            @NotNull
+            int itemId,
+            @NotNull
+            int qty,
+            Integer price,
+            String errorDesc
+    ) {
+    }
+}
@@ -0,0 +1,22 @@
+package co.id.project.dhimas.onlineshop.model.response;
+
+import co.id.project.dhimas.onlineshop.base.data.BaseDataResponse;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.ZonedDateTime;
+
+@RecordBuilder
+public record ReservationResponse(
+        @NotBlank
+        String reservationId,
+        @NotNull
+        int itemId,
+        @NotNull
+        int qty,
+        // released on its own after this unless confirmed
+        @NotNull
+        ZonedDateTime expiresAt
+) implements BaseDataResponse {
+}
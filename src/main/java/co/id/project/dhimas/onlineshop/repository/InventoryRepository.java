@@ -1,14 +1,37 @@
 package co.id.project.dhimas.onlineshop.repository;
 
 import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
 
+    Slice<Inventory> findAllBy(Pageable pageable);
+
+    List<Inventory> findByIdGreaterThanOrderById(int id, Limit limit);
+
+    // export cursor, rows are fetched from the driver in chunks instead of all at once
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Inventory> streamAllByOrderByIdAsc();
+
+    // stock summed from the ledger, only used to check stock_balance against it; reads go to the balance row
     @Query("""
             SELECT coalesce(sum(case when i.type = 'T' then i.qty else -i.qty end),0)
             FROM Inventory i
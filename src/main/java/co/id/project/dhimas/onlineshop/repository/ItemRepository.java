@@ -1,9 +1,55 @@
 package co.id.project.dhimas.onlineshop.repository;
 
 import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Integer> {
+
+    // stock as StockBalanceRepository.findAllWithLeases counts it, so lists and exports match GET /api/items/{id}
+    @Query(value = """
+            SELECT new co.id.project.dhimas.onlineshop.model.response.ItemListResponse$Item(
+                i.id, i.name, i.price, cast(coalesce(s.qty - s.held, 0)
+                    + coalesce((SELECT sum(l.qty) FROM StockLease l WHERE l.itemId = i.id), 0) as Integer))
+            FROM Item i
+            LEFT JOIN StockBalance s ON s.itemId = i.id
+    """)
+    Slice<ItemListResponse.Item> findAllWithStock(Pageable pageable);
+
+    @Query("""
+            SELECT new co.id.project.dhimas.onlineshop.model.response.ItemListResponse$Item(
+                i.id, i.name, i.price, cast(coalesce(s.qty - s.held, 0)
+                    + coalesce((SELECT sum(l.qty) FROM StockLease l WHERE l.itemId = i.id), 0) as Integer))
+            FROM Item i
+            LEFT JOIN StockBalance s ON s.itemId = i.id
+            WHERE i.id > :after
+            ORDER BY i.id
+    """)
+    List<ItemListResponse.Item> findAllWithStockAfter(@Param("after") int after, Limit limit);
+
+    // export cursor, rows are fetched from the driver in chunks instead of all at once
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new co.id.project.dhimas.onlineshop.model.response.ItemListResponse$Item(
+                i.id, i.name, i.price, cast(coalesce(s.qty - s.held, 0)
+                    + coalesce((SELECT sum(l.qty) FROM StockLease l WHERE l.itemId = i.id), 0) as Integer))
+            FROM Item i
+            LEFT JOIN StockBalance s ON s.itemId = i.id
+            ORDER BY i.id
+    """)
+    Stream<ItemListResponse.Item> streamAllWithStock();
 }
@@ -1,17 +1,54 @@
 package co.id.project.dhimas.onlineshop.repository;
 
 import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface OrdersRepository extends JpaRepository<Orders, Integer> {
 
     Optional<Orders> findByOrderNo(String orderNo);
 
-    @Query("SELECT o.orderNo FROM Orders o ORDER BY o.id DESC LIMIT 1")
-    String findLastOrderNo();
+    // an update and a delete of the same order queue on the row, each sees the qty the other left
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Orders o WHERE o.orderNo = :orderNo")
+    Optional<Orders> findByOrderNoForUpdate(@Param("orderNo") String orderNo);
+
+    Slice<Orders> findAllBy(Pageable pageable);
+
+    List<Orders> findByIdGreaterThanOrderById(int id, Limit limit);
+
+    // export cursor, rows are fetched from the driver in chunks instead of all at once
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Orders> streamAllByOrderByIdAsc();
+
+    // low end of the next block of order numbers
+    @Query(value = "SELECT nextval('order_no_seq')", nativeQuery = true)
+    long nextOrderNoBlock();
+
+    // numbers in one block, the INCREMENT BY of order_no_seq
+    @Query(value = """
+            SELECT cast(increment AS bigint) FROM information_schema.sequences
+            WHERE upper(sequence_name) = 'ORDER_NO_SEQ'
+    """, nativeQuery = true)
+    long orderNoBlockSize();
 }
@@ -0,0 +1,73 @@
+package co.id.project.dhimas.onlineshop.repository;
+
+import co.id.project.dhimas.onlineshop.model.entity.StockBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockBalanceRepository extends JpaRepository<StockBalance, Integer> {
+
+    // rows are locked in item order so concurrent batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockBalance s WHERE s.itemId IN :itemIds ORDER BY s.itemId")
+    List<StockBalance> findAllForUpdate(@Param("itemIds") Collection<Integer> itemIds);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.qty = s.qty + :delta WHERE s.itemId = :itemId")
+    int addStock(@Param("itemId") int itemId, @Param("delta") int delta);
+
+    // first movements of one item racing each other: one row gets in, the others insert nothing and update it
+    @Modifying
+    @Query("INSERT INTO StockBalance (itemId, qty, held) VALUES (:itemId, 0, 0) ON CONFLICT DO NOTHING")
+    int createIfAbsent(@Param("itemId") int itemId);
+
+    // balance less reservations plus what nodes have leased and not sold yet
+    @Query("""
+            SELECT new co.id.project.dhimas.onlineshop.model.entity.StockBalance(s.itemId,
+                   cast(s.qty - s.held + coalesce((SELECT sum(l.qty) FROM StockLease l WHERE l.itemId = s.itemId), 0) as Integer))
+            FROM StockBalance s
+            WHERE s.itemId IN :itemIds
+    """)
+    List<StockBalance> findAllWithLeases(@Param("itemIds") Collection<Integer> itemIds);
+
+    // stock held by reservations is not available to the deduction
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.qty = s.qty - :qty WHERE s.itemId = :itemId AND s.qty - s.held >= :qty")
+    int deductStock(@Param("itemId") int itemId, @Param("qty") int qty);
+
+    // same condition as deductStock, a hold and an order racing for the last units queue on the row
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.held = s.held + :qty WHERE s.itemId = :itemId AND s.qty - s.held >= :qty")
+    int holdStock(@Param("itemId") int itemId, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.held = s.held - :qty WHERE s.itemId = :itemId AND s.held >= :qty")
+    int releaseStock(@Param("itemId") int itemId, @Param("qty") int qty);
+
+    // the reserved qty leaves the balance together with its hold
+    @Modifying
+    @Query("""
+            UPDATE StockBalance s SET s.qty = s.qty - :qty, s.held = s.held - :qty
+            WHERE s.itemId = :itemId AND s.held >= :qty AND s.qty >= :qty
+    """)
+    int deductHeldStock(@Param("itemId") int itemId, @Param("qty") int qty);
+
+    @Modifying
+    @Query("""
+            INSERT INTO StockBalance (itemId, qty, held)
+            SELECT i.itemId, sum(case when i.type = 'T' then i.qty else -i.qty end)
+                   - coalesce((SELECT sum(l.qty) FROM StockLease l WHERE l.itemId = i.itemId), 0),
+                   coalesce((SELECT sum(r.qty) FROM StockReservation r WHERE r.itemId = i.itemId), 0)
+            FROM Inventory i
+            GROUP BY i.itemId
+    """)
+    int rebuildFromLedger();
+}
@@ -0,0 +1,43 @@
+package co.id.project.dhimas.onlineshop.repository;
+
+import co.id.project.dhimas.onlineshop.model.entity.StockLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockLeaseRepository extends JpaRepository<StockLease, StockLease.Key> {
+
+    @Modifying
+    @Query("""
+            UPDATE StockLease l SET l.qty = l.qty + :qty, l.expiresAt = :expiresAt
+            WHERE l.itemId = :itemId AND l.nodeId = :nodeId
+    """)
+    int addLease(@Param("itemId") int itemId,
+                 @Param("nodeId") String nodeId,
+                 @Param("qty") int qty,
+                 @Param("expiresAt") Instant expiresAt);
+
+    // only the owning node updates its row, so this never waits on another node
+    @Modifying
+    @Query("""
+            UPDATE StockLease l SET l.qty = l.qty - :qty
+            WHERE l.itemId = :itemId AND l.nodeId = :nodeId AND l.qty >= :qty
+    """)
+    int deductLease(@Param("itemId") int itemId, @Param("nodeId") String nodeId, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE StockLease l SET l.expiresAt = :expiresAt WHERE l.nodeId = :nodeId")
+    int renewLeases(@Param("nodeId") String nodeId, @Param("expiresAt") Instant expiresAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM StockLease l WHERE l.expiresAt < :now ORDER BY l.itemId")
+    List<StockLease> findExpiredForUpdate(@Param("now") Instant now);
+}
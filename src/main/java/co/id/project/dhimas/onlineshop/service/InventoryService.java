@@ -6,36 +6,97 @@ import co.id.project.dhimas.onlineshop.model.entity.Inventory;
 import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
 import co.id.project.dhimas.onlineshop.model.response.*;
 import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.service.function.ExportService;
+import co.id.project.dhimas.onlineshop.service.function.ImportService;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
 import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
 import co.id.project.dhimas.onlineshop.utils.InventoryType;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
+    private final StockService stockService;
+    private final RowCountService rowCountService;
+    private final ExportService exportService;
+    private final ImportService importService;
+    private final ShopMetrics shopMetrics;
 
-    public InventoryListResponse getInventory(int page, int size) {
-        // get all inventories
-        var inventories = inventoryRepository.findAll(PageRequest.of(page, size));
+    public InventoryListResponse getInventory(int page, int size, boolean withTotal) {
+        // get all inventories, no COUNT(*)
+        var inventories = inventoryRepository.findAllBy(PageRequest.of(page, size));
 
         var listInventories = inventories.getContent().stream()
                 .map(this::mapListInventories)
                 .toList();
 
-        return InventoryListResponseBuilder.builder()
+        var response = InventoryListResponseBuilder.builder()
                 .inventories(listInventories)
                 .page(page)
                 .size(size)
-                .totalItems(inventories.getTotalElements())
-                .totalPages(inventories.getTotalPages())
+                .hasNext(inventories.hasNext());
+
+        if (withTotal) {
+            long total = rowCountService.count(Inventory.class);
+            response.totalItems(total)
+                    .totalPages((int) ((total + size - 1) / size));
+        }
+
+        return response.build();
+    }
+
+    public InventoryListResponse getInventoryAfter(int after, int limit) {
+        // keyset page, the extra row tells whether there is a next page without a count query
+        var inventories = inventoryRepository.findByIdGreaterThanOrderById(after, Limit.of(limit + 1));
+
+        boolean hasNext = inventories.size() > limit;
+        var content = hasNext ? inventories.subList(0, limit) : inventories;
+
+        var listInventories = content.stream()
+                .map(this::mapListInventories)
+                .toList();
+
+        return InventoryListResponseBuilder.builder()
+                .inventories(listInventories)
+                .size(limit)
+                .nextCursor(hasNext ? content.get(limit - 1).getId() : null)
                 .build();
     }
 
+    public StreamingResponseBody exportInventory(ExportFormat format) {
+        // whole ledger in one response, rows are read through a cursor and written as they come
+        return exportService.export(format,
+                List.of("id", "itemId", "qty", "type"),
+                inventoryRepository::streamAllByOrderByIdAsc,
+                inventory -> List.of(inventory.getId(), inventory.getItemId(), inventory.getQty(),
+                        inventory.getType().name()));
+    }
+
+    public ImportResponse importInventory(ExportFormat format, InputStream in) {
+        // same rules as createInventory, balances are adjusted once per item and chunk
+        return importService.importRows(format, in,
+                row -> new InventoryRequest(row.integer("itemId"), row.integer("qty"), row.text("type")),
+                request -> Inventory.builder()
+                        .itemId(request.itemId())
+                        .qty(request.qty())
+                        .type(parseType(request.type()))
+                        .build(),
+                stockService::recordMovements);
+    }
+
     public InventoryResponse getInventory(int id){
         // get inventory
         var inventory = inventoryRepository.findById(id)
@@ -49,6 +110,7 @@ public class InventoryService {
                 .build();
     }
 
+    @Transactional
     public InventoryResponse createInventory(InventoryRequest request) {
         var inventory = Inventory.builder()
                 .itemId(request.itemId())
@@ -58,6 +120,11 @@ public class InventoryService {
 
         var saveInventory = inventoryRepository.save(inventory);
 
+        rowCountService.add(Inventory.class, 1);
+
+        stockService.adjustStock(saveInventory.getItemId(),
+                saveInventory.getType().signedQty(saveInventory.getQty()));
+
         return InventoryResponseBuilder.builder()
                 .id(saveInventory.getId())
                 .itemId(saveInventory.getItemId())
@@ -66,15 +133,16 @@ public class InventoryService {
                 .build();
     }
 
+    @Transactional
     public InventoryResponse updateInventory(int id, InventoryRequest request) {
-        var stock = inventoryRepository.getStock(request.itemId());
-
         var type = InventoryType.valueOf(request.type().toUpperCase());
 
-        if (StringUtils.equals(InventoryType.W.name(), type.name()) &&
-                (stock == 0 || stock < request.qty())) {
-            throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
-        }
+        var oldInventory = inventoryRepository.findById(id)
+                .orElseThrow(ResourceNotFoundException::new);
+
+        // taken before save(), which merges the new values into the managed row
+        int oldItemId = oldInventory.getItemId();
+        int oldSignedQty = oldInventory.getType().signedQty(oldInventory.getQty());
 
         var newValueInventory = Inventory.builder()
                 .id(id)
@@ -83,6 +151,16 @@ public class InventoryService {
                 .type(type)
                 .build();
 
+        // reverse the old ledger row, then apply the new one
+        int newSignedQty = newValueInventory.getType().signedQty(newValueInventory.getQty());
+        if (oldItemId == newValueInventory.getItemId()) {
+            // same balance row, one update with the difference
+            applyStock(oldItemId, type, newSignedQty - oldSignedQty);
+        } else {
+            stockService.adjustStock(oldItemId, -oldSignedQty);
+            applyStock(newValueInventory.getItemId(), type, newSignedQty);
+        }
+
         inventoryRepository.save(newValueInventory);
 
         return InventoryResponseBuilder.builder()
@@ -93,16 +171,47 @@ public class InventoryService {
                 .build();
     }
 
+    @Transactional
     public void deleteInventory(int id) {
         inventoryRepository.findById(id)
                 .ifPresentOrElse(
-                        data -> inventoryRepository.deleteById(data.getId()),
+                        data -> {
+                            inventoryRepository.deleteById(data.getId());
+                            rowCountService.add(Inventory.class, -1);
+                            stockService.adjustStock(data.getItemId(),
+                                    -data.getType().signedQty(data.getQty()));
+                        },
                         () -> {
                             throw new ResourceNotFoundException();
                         }
                 );
     }
 
+    public void rebuildStock() {
+        stockService.rebuildStock();
+    }
+
+    private void applyStock(int itemId, InventoryType type, int delta) {
+        // a withdrawal may only take stock that reservations do not hold, checked by the update itself
+        if (type == InventoryType.W && delta < 0) {
+            if (!stockService.deductStock(itemId, -delta)) {
+                shopMetrics.stockNotEnough(itemId, "inventory");
+                throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+            }
+            return;
+        }
+
+        stockService.adjustStock(itemId, delta);
+    }
+
+    private InventoryType parseType(String type) {
+        try {
+            return InventoryType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type must be T or W");
+        }
+    }
+
     private InventoryListResponse.Inventory mapListInventories(Inventory i) {
         return InventoryListResponseInventoryBuilder.builder()
                 .id(i.getId())
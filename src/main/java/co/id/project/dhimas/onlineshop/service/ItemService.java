@@ -5,10 +5,21 @@ import co.id.project.dhimas.onlineshop.model.entity.Item;
 import co.id.project.dhimas.onlineshop.model.request.ItemRequest;
 import co.id.project.dhimas.onlineshop.model.response.*;
 import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.ExportService;
+import co.id.project.dhimas.onlineshop.service.function.ImportService;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
 import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -16,35 +27,78 @@ public class ItemService {
 
     private final ItemRepository itemRepository;
     private final StockService stockService;
+    private final RowCountService rowCountService;
+    private final ExportService exportService;
+    private final ImportService importService;
+    private final ItemCatalog itemCatalog;
 
-    public ItemListResponse getItem(int page, int size) {
-        // get all items
-        var items = itemRepository.findAll(PageRequest.of(page, size));
-
-        var listItem = items.getContent().stream()
-                .map(this::getRemainingStock)
-                .toList();
+    public ItemListResponse getItem(int page, int size, boolean withTotal) {
+        // get all items, remaining stock joined in the same query, no COUNT(*)
+        var items = itemRepository.findAllWithStock(PageRequest.of(page, size));
 
-        return ItemListResponseBuilder.builder()
-                .items(listItem)
+        var response = ItemListResponseBuilder.builder()
+                .items(items.getContent())
                 .page(page)
                 .size(size)
-                .totalItems(items.getTotalElements())
-                .totalPages(items.getTotalPages())
+                .hasNext(items.hasNext());
+
+        if (withTotal) {
+            long total = rowCountService.count(Item.class);
+            response.totalItems(total)
+                    .totalPages((int) ((total + size - 1) / size));
+        }
+
+        return response.build();
+    }
+
+    public ItemListResponse getItemAfter(int after, int limit) {
+        // keyset page, the extra row tells whether there is a next page without a count query
+        var items = itemRepository.findAllWithStockAfter(after, Limit.of(limit + 1));
+
+        boolean hasNext = items.size() > limit;
+        var content = hasNext ? items.subList(0, limit) : items;
+
+        return ItemListResponseBuilder.builder()
+                .items(content)
+                .size(limit)
+                .nextCursor(hasNext ? content.get(limit - 1).id() : null)
                 .build();
     }
 
+    public StreamingResponseBody exportItems(ExportFormat format) {
+        // whole catalog in one response, stock joined in the same cursor
+        return exportService.export(format,
+                List.of("id", "name", "price", "remainingStock"),
+                itemRepository::streamAllWithStock,
+                item -> List.of(item.id(), item.name(), item.price(), item.remainingStock()));
+    }
+
+    public ImportResponse importItems(ExportFormat format, InputStream in) {
+        // same rules as createItem, written in chunks with JDBC batching
+        return importService.importRows(format, in,
+                row -> new ItemRequest(row.text("name"), row.integer("price")),
+                request -> Item.builder()
+                        .name(request.name())
+                        .price(request.price())
+                        .build(),
+                items -> {
+                    itemRepository.saveAll(items);
+                    rowCountService.add(Item.class, items.size());
+                    itemCatalog.evict(items.stream().map(Item::getId).toList());
+                });
+    }
+
     public ItemResponse getItem(int id){
         // get item
-        var item = itemRepository.findById(id)
+        var item = itemCatalog.find(id)
                 .orElseThrow(ResourceNotFoundException::new);
 
         var stock = stockService.remainingStock(id);
 
         return ItemResponseBuilder.builder()
                 .id(id)
-                .name(item.getName())
-                .price(item.getPrice())
+                .name(item.name())
+                .price(item.price())
                 .remainingStock(stock)
                 .build();
     }
@@ -57,6 +111,10 @@ public class ItemService {
 
         var saveItem = itemRepository.save(item);
 
+        rowCountService.add(Item.class, 1);
+        // the id may have been looked up before it existed
+        itemCatalog.evict(List.of(saveItem.getId()));
+
         return ItemResponseBuilder.builder()
                 .id(saveItem.getId())
                 .name(saveItem.getName())
@@ -64,18 +122,19 @@ public class ItemService {
                 .build();
     }
 
+    @Transactional
     public ItemResponse updateItem(int id, ItemRequest request) {
-        itemRepository.findById(id)
+        var newValueItem = itemRepository.findById(id)
                 .orElseThrow(ResourceNotFoundException::new);
 
-        var newValueItem = Item.builder()
-                .id(id)
-                .name(request.name())
-                .price(request.price())
-                .build();
+        // change the loaded row so the version check sees concurrent updates
+        newValueItem.setName(request.name());
+        newValueItem.setPrice(request.price());
 
         itemRepository.save(newValueItem);
 
+        itemCatalog.evict(List.of(id));
+
         return ItemResponseBuilder.builder()
                 .id(newValueItem.getId())
                 .name(newValueItem.getName())
@@ -83,24 +142,19 @@ public class ItemService {
                 .build();
     }
 
+    @Transactional
     public void deleteItem(int id) {
+        // one transaction, deleteById finds the loaded row in the persistence context instead of selecting it again
         itemRepository.findById(id)
                 .ifPresentOrElse(
-                        data -> itemRepository.deleteById(data.getId()),
+                        data -> {
+                            itemRepository.deleteById(data.getId());
+                            rowCountService.add(Item.class, -1);
+                            itemCatalog.evict(List.of(data.getId()));
+                        },
                         () -> {
                             throw new ResourceNotFoundException();
                         }
                 );
     }
-
-    private ItemListResponse.Item getRemainingStock(Item i) {
-        int stock = stockService.remainingStock(i.getId());
-
-        return ItemListResponseItemBuilder.builder()
-                .id(i.getId())
-                .name(i.getName())
-                .price(i.getPrice())
-                .remainingStock(stock)
-                .build();
-    }
 }
@@ -1,43 +1,118 @@
 package co.id.project.dhimas.onlineshop.service;
 
+import co.id.project.dhimas.onlineshop.exception.BaseException;
 import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
 import co.id.project.dhimas.onlineshop.exception.ResourceNotFoundException;
+import co.id.project.dhimas.onlineshop.exception.ThrottledException;
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
 import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.model.request.OrdersBatchRequest;
 import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
 import co.id.project.dhimas.onlineshop.model.response.*;
-import co.id.project.dhimas.onlineshop.repository.ItemRepository;
 import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.ExportService;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.OrderAdmission;
+import co.id.project.dhimas.onlineshop.service.function.OrderNoGenerator;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
+import co.id.project.dhimas.onlineshop.service.function.SerialLanes;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.StockLeases;
 import co.id.project.dhimas.onlineshop.service.function.StockService;
 import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import co.id.project.dhimas.onlineshop.utils.OrderLineStatus;
+import co.id.project.dhimas.onlineshop.utils.OrderStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrdersService {
 
+    // a full intake queue means the writers are behind, about the time of a few group commits
+    private static final Duration INTAKE_RETRY_AFTER = Duration.ofSeconds(1);
+
     private final OrdersRepository ordersRepository;
-    private final ItemRepository itemRepository;
+    private final ItemCatalog itemCatalog;
     private final StockService stockService;
+    private final OrderNoGenerator orderNoGenerator;
+    private final RowCountService rowCountService;
+    private final ExportService exportService;
+    private final SerialLanes<OrdersRequest, OrdersResponse> orderLanes;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLeases stockLeases;
+    private final OrderAdmission orderAdmission;
+    private final SerialLanes<Orders, OrdersResponse> orderIntake;
+    private final BoundedCache<String, OrderStatusResponse> orderOutcomes;
+    private final ShopMetrics shopMetrics;
+
+    // accepted by the intake and not written yet
+    private final Map<String, OrderStatusResponse> queuedOrders = new ConcurrentHashMap<>();
 
-    public OrdersListResponse getOrder(int page, int size){
-        // get all orders
-        var orders = ordersRepository.findAll(PageRequest.of(page, size));
+    public OrdersListResponse getOrder(int page, int size, boolean withTotal){
+        // get all orders, no COUNT(*)
+        var orders = ordersRepository.findAllBy(PageRequest.of(page, size));
 
         var listOrder = orders.getContent().stream()
                 .map(this::mapListOrder)
                 .toList();
 
-        return OrdersListResponseBuilder.builder()
+        var response = OrdersListResponseBuilder.builder()
                 .orders(listOrder)
                 .page(page)
                 .size(size)
-                .totalItems(orders.getTotalElements())
-                .totalPages(orders.getTotalPages())
+                .hasNext(orders.hasNext());
+
+        if (withTotal) {
+            long total = rowCountService.count(Orders.class);
+            response.totalItems(total)
+                    .totalPages((int) ((total + size - 1) / size));
+        }
+
+        return response.build();
+    }
+
+    public OrdersListResponse getOrderAfter(int after, int limit) {
+        // keyset page, the extra row tells whether there is a next page without a count query
+        var orders = ordersRepository.findByIdGreaterThanOrderById(after, Limit.of(limit + 1));
+
+        boolean hasNext = orders.size() > limit;
+        var content = hasNext ? orders.subList(0, limit) : orders;
+
+        var listOrder = content.stream()
+                .map(this::mapListOrder)
+                .toList();
+
+        return OrdersListResponseBuilder.builder()
+                .orders(listOrder)
+                .size(limit)
+                .nextCursor(hasNext ? content.get(limit - 1).getId() : null)
                 .build();
     }
 
+    public StreamingResponseBody exportOrders(ExportFormat format) {
+        // whole table in one response, rows are read through a cursor and written as they come
+        return exportService.export(format,
+                List.of("orderNo", "itemId", "qty", "price"),
+                ordersRepository::streamAllByOrderByIdAsc,
+                order -> List.of(order.getOrderNo(), order.getItemId(), order.getQty(), order.getPrice()));
+    }
+
     public OrdersResponse getOrder(String orderNo){
         // get order
         var orders = ordersRepository.findByOrderNo(orderNo.toUpperCase())
@@ -52,24 +127,138 @@ public class OrdersService {
     }
 
     public OrdersResponse createOrder(OrdersRequest request) {
-        var stock = stockService.remainingStock(request.itemId());
+        // over the rate or concurrency limit: turned away before any stock or database work
+        try (var ticket = orderAdmission.admit(request.itemId())) {
+            if (!ticket.admitted()) {
+                throw new ThrottledException(ticket.retryAfter());
+            }
+
+            try {
+                return createAdmittedOrder(request);
+            } catch (BaseException e) {
+                ticket.discardSample();
+                throw e;
+            }
+        }
+    }
+
+    private OrdersResponse createAdmittedOrder(OrdersRequest request) {
+        if (orderLanes.enabled()) {
+            // orders of one item are decided one after another by its lane, each group of queued orders
+            // locks the balance row once instead of every order taking its own row lock
+            return orderLanes.submit(request.itemId(), request, this::createOrderGroup);
+        }
+
+        if (stockLeases.enabled()) {
+            return createLeasedOrder(request);
+        }
+
+        // check and deduct in one conditional write, rolled back if the order fails
+        return transactionTemplate.execute(status ->
+                placeOrder(request, stockService.withdrawStock(request.itemId(), request.qty())));
+    }
+
+    private OrdersResponse createLeasedOrder(OrdersRequest request) {
+        // decided against this node's lease in memory, the order only writes the lease row of this node
+        if (!stockLeases.take(request.itemId(), request.qty())) {
+            shopMetrics.stockNotEnough(request.itemId(), "order");
+            throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+        }
+
+        try {
+            return transactionTemplate.execute(status ->
+                    placeOrder(request, stockLeases.withdrawStock(request.itemId(), request.qty())));
+        } catch (RuntimeException e) {
+            stockLeases.giveBack(request.itemId(), request.qty());
+            throw e;
+        }
+    }
+
+    public boolean asyncIntake() {
+        return orderIntake.enabled();
+    }
+
+    /**
+     * Validates the order, draws its number and queues it for the writers without waiting for the commit.
+     * Stock is only decided when the order is written, the outcome is polled with getOrderStatus.
+     */
+    public OrderStatusResponse queueOrder(OrdersRequest request) {
+        var item = itemCatalog.find(request.itemId())
+                .orElseThrow(ResourceNotFoundException::new);
+
+        var order = Orders.builder()
+                .orderNo(orderNoGenerator.nextOrderNo())
+                .itemId(request.itemId())
+                .qty(request.qty())
+                .price(request.qty() * item.price())
+                .build();
+
+        var queued = mapStatus(order, OrderStatus.QUEUED, null);
+        queuedOrders.put(order.getOrderNo(), queued);
+
+        var written = orderIntake.offer(order.getItemId(), order, this::writeQueuedOrders);
+        if (written == null) {
+            queuedOrders.remove(order.getOrderNo());
+            throw new ThrottledException(INTAKE_RETRY_AFTER);
+        }
+
+        written.whenComplete((response, error) -> recordOutcome(order, error));
+
+        return queued;
+    }
+
+    public OrderStatusResponse getOrderStatus(String orderNo) {
+        var key = orderNo.toUpperCase();
+
+        // the outcome is recorded before the order leaves the queue, so one of the two always has it
+        var queued = queuedOrders.get(key);
+        if (queued != null) {
+            return queued;
+        }
 
-        if (stock < request.qty()) {
+        var outcome = orderOutcomes.getIfPresent(key);
+        if (outcome != null) {
+            return outcome;
+        }
+
+        // written before the outcome expired, or created without the intake
+        return ordersRepository.findByOrderNo(key)
+                .map(order -> mapStatus(order, OrderStatus.CREATED, null))
+                .orElseThrow(ResourceNotFoundException::new);
+    }
+
+    public OrdersResponse createReservedOrder(String reservationId, Instant now) {
+        // reservation, hold and withdrawal in one transaction, a failed order leaves the reservation open
+        return transactionTemplate.execute(status -> {
+            var reservation = stockService.takeReservation(reservationId, now)
+                    .orElseThrow(ResourceNotFoundException::new);
+            var request = new OrdersRequest(reservation.getItemId(), reservation.getQty());
+
+            return placeOrder(request, stockService.withdrawHeldStock(request.itemId(), request.qty()));
+        });
+    }
+
+    private OrdersResponse placeOrder(OrdersRequest request, boolean withdrawn) {
+        if (!withdrawn) {
+            shopMetrics.stockNotEnough(request.itemId(), "order");
             throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
         }
 
-        var item = itemRepository.findById(request.itemId())
+        // price from the cached catalog snapshot, no round trip for the item row
+        var item = itemCatalog.find(request.itemId())
                 .orElseThrow(ResourceNotFoundException::new);
 
         var order = Orders.builder()
-                .orderNo(createOrderNo())
+                .orderNo(orderNoGenerator.nextOrderNo())
                 .itemId(request.itemId())
                 .qty(request.qty())
-                .price(request.qty() * item.getPrice())
+                .price(request.qty() * item.price())
                 .build();
 
         ordersRepository.save(order);
 
+        rowCountService.add(Orders.class, 1);
+
         return OrdersResponseBuilder.builder()
                 .orderNo(order.getOrderNo())
                 .itemId(order.getItemId())
@@ -78,26 +267,185 @@ public class OrdersService {
                 .build();
     }
 
-    public OrdersResponse updateOrder(String orderNo, OrdersRequest request) {
-        var stock = stockService.remainingStock(request.itemId());
+    @Transactional
+    public OrdersBatchResponse createOrders(OrdersBatchRequest request) {
+        var placements = placeOrders(request.orders().stream()
+                .map(o -> new OrdersRequest(o.itemId(), o.qty()))
+                .toList());
 
-        if (stock < request.qty()) {
-            throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+        var results = new ArrayList<OrdersBatchResponse.Result>();
+        int created = 0;
+
+        for (int line = 0; line < placements.size(); line++) {
+            var o = request.orders().get(line);
+            var placement = placements.get(line);
+
+            if (placement.error() != null) {
+                results.add(rejectLine(line, o, placement.error()));
+                continue;
+            }
+
+            var order = placement.order();
+            created++;
+            results.add(OrdersBatchResponseResultBuilder.builder()
+                    .line(line)
+                    .status(OrderLineStatus.CREATED.name())
+                    .orderNo(order.getOrderNo())
+                    .itemId(order.getItemId())
+                    .qty(order.getQty())
+                    .price(order.getPrice())
+                    .build());
         }
 
-        var orders = ordersRepository.findByOrderNo(orderNo.toUpperCase())
+        return OrdersBatchResponseBuilder.builder()
+                .results(results)
+                .created(created)
+                .rejected(results.size() - created)
+                .build();
+    }
+
+    private void createOrderGroup(List<SerialLanes.Task<OrdersRequest, OrdersResponse>> tasks) {
+        var placements = transactionTemplate.execute(status -> placeOrders(tasks.stream()
+                .map(SerialLanes.Task::request)
+                .toList()));
+
+        completeTasks(tasks, placements);
+    }
+
+    private void writeQueuedOrders(List<SerialLanes.Task<Orders, OrdersResponse>> tasks) {
+        var orders = tasks.stream()
+                .map(SerialLanes.Task::request)
+                .toList();
+        var itemIds = orders.stream()
+                .map(Orders::getItemId)
+                .collect(Collectors.toSet());
+
+        // the whole group in one commit
+        var placements = transactionTemplate.execute(status -> commitOrders(itemIds, orders));
+
+        completeTasks(tasks, placements);
+    }
+
+    // completed only after commit, a caller never sees an order that was rolled back
+    private <T> void completeTasks(List<SerialLanes.Task<T, OrdersResponse>> tasks, List<Placement> placements) {
+        for (int i = 0; i < tasks.size(); i++) {
+            var placement = placements.get(i);
+
+            if (placement.error() == ErrorType.RESOURCE_NOT_FOUND) {
+                tasks.get(i).fail(new ResourceNotFoundException());
+            } else if (placement.error() != null) {
+                tasks.get(i).fail(new GeneralErrorException(placement.error()));
+            } else {
+                tasks.get(i).complete(mapOrder(placement.order()));
+            }
+        }
+    }
+
+    private List<Placement> placeOrders(List<OrdersRequest> requests) {
+        var itemIds = requests.stream()
+                .map(OrdersRequest::itemId)
+                .collect(Collectors.toSet());
+
+        // prices from the catalog cache, one query for the misses
+        var items = itemCatalog.findAll(itemIds);
+
+        // unknown items stay null, order numbers are only drawn for accepted orders
+        var drafts = requests.stream()
+                .map(o -> {
+                    var item = items.get(o.itemId());
+                    return item == null ? null : Orders.builder()
+                            .itemId(o.itemId())
+                            .qty(o.qty())
+                            .price(o.qty() * item.price())
+                            .build();
+                })
+                .toList();
+
+        return commitOrders(itemIds, drafts);
+    }
+
+    private List<Placement> commitOrders(Set<Integer> itemIds, List<Orders> drafts) {
+        // one locking query for all balances
+        var stock = new HashMap<>(stockService.lockStock(itemIds));
+
+        var placements = new ArrayList<Placement>();
+        var accepted = new ArrayList<Orders>();
+        var withdrawals = new ArrayList<Inventory>();
+
+        for (var draft : drafts) {
+            if (draft == null) {
+                placements.add(new Placement(null, ErrorType.RESOURCE_NOT_FOUND));
+                continue;
+            }
+
+            // earlier orders already consumed part of the stock
+            int available = stock.getOrDefault(draft.getItemId(), 0);
+
+            if (available < draft.getQty()) {
+                shopMetrics.stockNotEnough(draft.getItemId(), "batch");
+                placements.add(new Placement(null, ErrorType.STOCK_NOT_ENOUGH));
+                continue;
+            }
+
+            stock.put(draft.getItemId(), available - draft.getQty());
+
+            // a new entity every time, drafts are written again one by one when their group fails
+            var order = Orders.builder()
+                    .orderNo(draft.getOrderNo() != null ? draft.getOrderNo() : orderNoGenerator.nextOrderNo())
+                    .itemId(draft.getItemId())
+                    .qty(draft.getQty())
+                    .price(draft.getPrice())
+                    .build();
+
+            accepted.add(order);
+            withdrawals.add(Inventory.builder()
+                    .itemId(order.getItemId())
+                    .qty(order.getQty())
+                    .type(InventoryType.W)
+                    .build());
+            placements.add(new Placement(order, null));
+        }
+
+        if (!accepted.isEmpty()) {
+            // sequence ids let hibernate send these as JDBC batches on flush
+            ordersRepository.saveAll(accepted);
+            stockService.withdrawStock(withdrawals);
+
+            rowCountService.add(Orders.class, accepted.size());
+        }
+
+        return placements;
+    }
+
+    @Transactional
+    public OrdersResponse updateOrder(String orderNo, OrdersRequest request) {
+        var order = ordersRepository.findByOrderNoForUpdate(orderNo.toUpperCase())
                 .orElseThrow(ResourceNotFoundException::new);
 
-        var item = itemRepository.findById(request.itemId())
+        var item = itemCatalog.find(request.itemId())
                 .orElseThrow(ResourceNotFoundException::new);
 
-        var order = Orders.builder()
-                .id(orders.getId())
-                .orderNo(orderNo)
-                .itemId(request.itemId())
-                .qty(request.qty())
-                .price(request.qty() * item.getPrice())
-                .build();
+        // old qty back to the old item, new qty out of the new item; the same item moves by the difference only
+        int returned = order.getQty();
+        int taken = request.qty();
+        if (order.getItemId() == request.itemId()) {
+            returned = Math.max(order.getQty() - request.qty(), 0);
+            taken = Math.max(request.qty() - order.getQty(), 0);
+        }
+
+        if (returned > 0) {
+            stockService.restoreStock(order.getItemId(), returned);
+        }
+
+        // conditional deduction on the balance row, throwing rolls the returned stock back with it
+        if (taken > 0 && !stockService.withdrawStock(request.itemId(), taken)) {
+            shopMetrics.stockNotEnough(request.itemId(), "order-update");
+            throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+        }
+
+        order.setItemId(request.itemId());
+        order.setQty(request.qty());
+        order.setPrice(request.qty() * item.price());
 
         ordersRepository.save(order);
 
@@ -109,16 +457,41 @@ public class OrdersService {
                 .build();
     }
 
+    @Transactional
     public void deleteOrder(String orderNo) {
-        ordersRepository.findByOrderNo(orderNo.toUpperCase())
+        ordersRepository.findByOrderNoForUpdate(orderNo.toUpperCase())
                 .ifPresentOrElse(
-                        data -> ordersRepository.deleteById(data.getId()),
+                        data -> {
+                            ordersRepository.deleteById(data.getId());
+                            rowCountService.add(Orders.class, -1);
+                            // the order no longer holds its qty
+                            stockService.restoreStock(data.getItemId(), data.getQty());
+                        },
                         () -> {
                             throw new ResourceNotFoundException();
                         }
                 );
     }
 
+    private OrdersBatchResponse.Result rejectLine(int line, OrdersBatchRequest.Order o, ErrorType errorType) {
+        return OrdersBatchResponseResultBuilder.builder()
+                .line(line)
+                .status(OrderLineStatus.REJECTED.name())
+                .itemId(o.itemId())
+                .qty(o.qty())
+                .errorDesc(errorType.getMessage())
+                .build();
+    }
+
+    private OrdersResponse mapOrder(Orders o) {
+        return OrdersResponseBuilder.builder()
+                .orderNo(o.getOrderNo())
+                .itemId(o.getItemId())
+                .qty(o.getQty())
+                .price(o.getPrice())
+                .build();
+    }
+
     private OrdersListResponse.Orders mapListOrder(Orders o) {
         return OrdersListResponseOrdersBuilder.builder()
                 .orderNo(o.getOrderNo())
@@ -128,10 +501,35 @@ public class OrdersService {
                 .build();
     }
 
-    private String createOrderNo() {
-        String lastOrderNo = ordersRepository.findLastOrderNo();
-        int nextNumber = Integer.parseInt(lastOrderNo.substring(1)) + 1;
+    private void recordOutcome(Orders order, Throwable error) {
+        var cause = error instanceof CompletionException ? error.getCause() : error;
+
+        OrderStatusResponse outcome;
+        if (cause == null) {
+            outcome = mapStatus(order, OrderStatus.CREATED, null);
+        } else if (cause instanceof BaseException e) {
+            outcome = mapStatus(order, OrderStatus.REJECTED, e.getErrorType().getMessage());
+        } else {
+            // rolled back for another reason, e.g. the writer was shut down
+            outcome = mapStatus(order, OrderStatus.FAILED, null);
+        }
+
+        orderOutcomes.put(order.getOrderNo(), outcome);
+        queuedOrders.remove(order.getOrderNo());
+    }
+
+    private OrderStatusResponse mapStatus(Orders order, OrderStatus status, String errorDesc) {
+        return OrderStatusResponseBuilder.builder()
+                .orderNo(order.getOrderNo())
+                .itemId(order.getItemId())
+                .qty(order.getQty())
+                .price(order.getPrice())
+                .status(status)
+                .errorDesc(errorDesc)
+                .build();
+    }
 
-        return "O" + nextNumber;
+    // either the created order or why the request was rejected
+    private record Placement(Orders order, ErrorType error) {
     }
 }
@@ -0,0 +1,160 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.config.OrderProperties;
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.exception.ResourceNotFoundException;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
+import co.id.project.dhimas.onlineshop.model.response.ReservationResponse;
+import co.id.project.dhimas.onlineshop.model.response.ReservationResponseBuilder;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.service.function.TimingWheel;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds stock for checkout. A reservation is a stock_reservation row plus its qty in stock_balance.held,
+ * so it can be confirmed or released on any node and survives a restart. The node that took it releases
+ * it on time through the timing wheel, every node gives back expired holds the owner never got to.
+ */
+@Service
+public class ReservationService {
+
+    private final StockService stockService;
+    private final OrdersService ordersService;
+    private final ItemCatalog itemCatalog;
+    private final ShopMetrics shopMetrics;
+    private final Duration ttl;
+    private final Clock clock;
+    private final TimingWheel<String> expiry;
+    private final ScheduledExecutorService reclaim;
+
+    // expiry timers of the reservations taken on this node, by reservation id
+    private final ConcurrentHashMap<String, TimingWheel.Timeout<String>> timeouts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReservationService(StockService stockService,
+                              OrdersService ordersService,
+                              ItemCatalog itemCatalog,
+                              ShopMetrics shopMetrics,
+                              OrderProperties orderProperties) {
+        this(stockService, ordersService, itemCatalog, shopMetrics, orderProperties.reservation(),
+                Clock.systemDefaultZone());
+    }
+
+    ReservationService(StockService stockService,
+                       OrdersService ordersService,
+                       ItemCatalog itemCatalog,
+                       ShopMetrics shopMetrics,
+                       OrderProperties.Reservation properties,
+                       Clock clock) {
+        this.stockService = stockService;
+        this.ordersService = ordersService;
+        this.itemCatalog = itemCatalog;
+        this.shopMetrics = shopMetrics;
+        this.ttl = properties.ttl();
+        this.clock = clock;
+        this.expiry = new TimingWheel<>("reservation", properties.tick(), properties.wheelSize(), this::expire);
+        this.reclaim = startReclaim(properties.reclaimInterval());
+    }
+
+    public ReservationResponse reserve(OrdersRequest request) {
+        itemCatalog.find(request.itemId())
+                .orElseThrow(ResourceNotFoundException::new);
+
+        var reservationId = UUID.randomUUID().toString();
+        var expiresAt = ZonedDateTime.now(clock).plus(ttl);
+
+        if (!stockService.holdStock(reservationId, request.itemId(), request.qty(), expiresAt.toInstant())) {
+            shopMetrics.stockNotEnough(request.itemId(), "reservation");
+            throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+        }
+
+        timeouts.put(reservationId, expiry.schedule(reservationId, ttl));
+
+        return ReservationResponseBuilder.builder()
+                .reservationId(reservationId)
+                .itemId(request.itemId())
+                .qty(request.qty())
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    public OrdersResponse confirm(String reservationId) {
+        // an unknown, expired or already confirmed reservation is not found, a failed order keeps it open
+        var order = ordersService.createReservedOrder(reservationId, clock.instant());
+
+        cancelExpiry(reservationId);
+
+        return order;
+    }
+
+    public void release(String reservationId) {
+        if (!stockService.releaseStock(reservationId)) {
+            throw new ResourceNotFoundException();
+        }
+
+        cancelExpiry(reservationId);
+    }
+
+    @PreDestroy
+    public void close() {
+        expiry.close();
+        reclaim.shutdownNow();
+    }
+
+    void reclaimExpired() {
+        stockService.reclaimExpiredHolds(clock.instant());
+    }
+
+    // only frees the wheel slot early, an expiry that still fires finds the row gone
+    private void cancelExpiry(String reservationId) {
+        var timeout = timeouts.remove(reservationId);
+
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void expire(String reservationId) {
+        timeouts.remove(reservationId);
+
+        try {
+            stockService.releaseStock(reservationId);
+        } catch (RuntimeException e) {
+            // the row is still there with its expiry, the reclaim gives the hold back later
+        }
+    }
+
+    private ScheduledExecutorService startReclaim(Duration interval) {
+        var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "reservation-reclaim");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(interval.toMillis(), 1);
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reclaimExpired();
+            } catch (RuntimeException e) {
+                // next round tries again
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        return executor;
+    }
+}
@@ -0,0 +1,75 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.response.*;
+import co.id.project.dhimas.onlineshop.service.function.BatchLoader;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.OrderAdmission;
+import co.id.project.dhimas.onlineshop.service.function.SingleFlight;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+    private final List<BoundedCache<?, ?>> caches;
+    private final List<SingleFlight<?, ?>> singleFlights;
+    private final List<BatchLoader<?, ?>> batchLoaders;
+    private final EntityManagerFactory entityManagerFactory;
+    private final OrderAdmission orderAdmission;
+
+    public CacheStatsResponse getCacheStats() {
+        return CacheStatsResponseBuilder.builder()
+                .caches(caches.stream()
+                        .map(BoundedCache::stats)
+                        .toList())
+                .build();
+    }
+
+    public CoalescingStatsResponse getCoalescingStats() {
+        return CoalescingStatsResponseBuilder.builder()
+                .groups(singleFlights.stream()
+                        .map(SingleFlight::stats)
+                        .toList())
+                .batches(batchLoaders.stream()
+                        .map(BatchLoader::stats)
+                        .toList())
+                .build();
+    }
+
+    public AdmissionStatsResponse getAdmissionStats() {
+        return orderAdmission.stats();
+    }
+
+    public HibernateStatsResponse getHibernateStats() {
+        // counters since startup, needs hibernate.generate_statistics
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        var regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> {
+                    var region = statistics.getCacheRegionStatistics(name);
+                    return HibernateStatsResponseRegionBuilder.builder()
+                            .name(name)
+                            .hits(region.getHitCount())
+                            .misses(region.getMissCount())
+                            .puts(region.getPutCount())
+                            .build();
+                })
+                .toList();
+
+        return HibernateStatsResponseBuilder.builder()
+                .entityLoadCount(statistics.getEntityLoadCount())
+                .queryExecutionCount(statistics.getQueryExecutionCount())
+                .secondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount())
+                .secondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount())
+                .secondLevelCachePutCount(statistics.getSecondLevelCachePutCount())
+                .regions(regions)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows latency: it grows by one for every limit's worth of calls that are
+ * as fast as usual and drops by a tenth when a call takes longer than tolerance times the best recent
+ * latency. Queueing in the database shows up as latency well before it shows up as errors,
+ * so the limit backs off while throughput is still steady.
+ */
+public class AdaptiveLimit {
+
+    // samples after which the best latency is looked for again, so the baseline can also go up
+    private static final int BASELINE_WINDOW = 1_000;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final LongSupplier ticker;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int currentLimit;
+
+    // guarded by this
+    private double limit;
+    private long baseline = Long.MAX_VALUE;
+    private long windowBest = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecrease = Long.MIN_VALUE;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, tolerance, System::nanoTime);
+    }
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, LongSupplier ticker) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(maxLimit, minLimit);
+        this.tolerance = tolerance;
+        this.ticker = ticker;
+        this.limit = Math.min(Math.max(initialLimit, minLimit), this.maxLimit);
+        this.currentLimit = (int) limit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.increment();
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // a call that says nothing about load, e.g. one rejected before it did any real work
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos) {
+        int busy = inFlight.getAndDecrement();
+
+        synchronized (this) {
+            baseline = Math.min(baseline, latencyNanos);
+            windowBest = Math.min(windowBest, latencyNanos);
+            if (++windowSamples == BASELINE_WINDOW) {
+                baseline = windowBest;
+                windowBest = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+
+            long now = ticker.getAsLong();
+            if (latencyNanos > baseline * tolerance) {
+                // once per round trip, calls that started before the last decrease still ran under the old limit
+                if (now - latencyNanos >= lastDecrease) {
+                    limit = Math.max(minLimit, limit * BACKOFF);
+                    lastDecrease = now;
+                }
+            } else if (busy >= limit / 2) {
+                // only grows while the limit is actually in use
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+
+            currentLimit = (int) limit;
+        }
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public synchronized long baselineNanos() {
+        return baseline == Long.MAX_VALUE ? 0 : baseline;
+    }
+}
@@ -0,0 +1,117 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.response.CoalescingStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.CoalescingStatsResponseBatchBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Loads arriving within one window, or until the batch is full, are answered by a single call of the loader.
+ * The caller that opens a batch waits out the window and runs the loader for everyone in it,
+ * so no background thread is needed and the query never starts before its last key joined.
+ */
+public class BatchLoader<K, V> {
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Batch<K, V> open;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+
+    public BatchLoader(String name, Duration window, int maxBatchSize) {
+        this.name = name;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @param loader returns a value for every key it is given, called once per batch
+     */
+    public V load(K key, Function<Set<K>, Map<K, V>> loader) {
+        calls.increment();
+
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean opened = false;
+
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch<>();
+                opened = true;
+            }
+            batch = open;
+            // the same key twice in a window is looked up once
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+
+            if (batch.futures.size() >= maxBatchSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+
+        if (opened) {
+            dispatch(batch, loader);
+        }
+
+        return SingleFlight.join(future);
+    }
+
+    public CoalescingStatsResponse.Batch stats() {
+        return CoalescingStatsResponseBatchBuilder.builder()
+                .name(name)
+                .calls(calls.sum())
+                .batches(batches.sum())
+                .keys(keys.sum())
+                .largestBatch(largestBatch.get())
+                .build();
+    }
+
+    private void dispatch(Batch<K, V> batch, Function<Set<K>, Map<K, V>> loader) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (lock) {
+            if (open == batch) {
+                open = null;
+            }
+        }
+
+        // sealed, no caller adds to this batch anymore
+        var futures = batch.futures;
+        batches.increment();
+        keys.add(futures.size());
+        largestBatch.accumulate(futures.size());
+
+        try {
+            var values = loader.apply(Collections.unmodifiableSet(futures.keySet()));
+            futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch<K, V> {
+
+        private final Map<K, CompletableFuture<V>> futures = new HashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
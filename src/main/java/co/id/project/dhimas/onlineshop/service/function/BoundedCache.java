@@ -0,0 +1,231 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.response.CacheStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.CacheStatsResponseCacheBuilder;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process cache with a TTL per entry and sampled LRU eviction.
+ * A hit reads the map without a lock and only stamps its own entry; a full cache evicts the least recently used
+ * of a few sampled entries. Values loaded while an invalidation happens are not stored, so a slow reader cannot
+ * put back a value older than a write.
+ */
+public class BoundedCache<K, V> {
+
+    // entries compared per eviction, the whole cache when it is smaller than this
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    // bumped by every invalidation before its entries are removed
+    private final AtomicLong generation = new AtomicLong();
+
+    // eviction only, one writer trims the cache at a time while reads go on
+    private final Object evictionLock = new Object();
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(String name, int maxSize, Duration ttl, LongSupplier ticker) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        var entry = lookup(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        long loadGeneration = generation.get();
+
+        // loaded without any lock so one slow query does not block other keys
+        V value = loader.apply(key);
+
+        store(key, value, loadGeneration);
+
+        return value;
+    }
+
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<Set<K>, Map<K, V>> loader) {
+        var result = new HashMap<K, V>();
+        var missing = new HashSet<K>();
+
+        for (K key : keys) {
+            var entry = lookup(key);
+            if (entry != null) {
+                result.put(key, entry.value);
+            } else {
+                missing.add(key);
+            }
+        }
+        long loadGeneration = generation.get();
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // every miss in one load instead of one load per key
+        var loaded = loader.apply(missing);
+
+        loaded.forEach((key, value) -> store(key, value, loadGeneration));
+
+        result.putAll(loaded);
+        return result;
+    }
+
+    public V getIfPresent(K key) {
+        var entry = lookup(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public void put(K key, V value) {
+        long now = ticker.getAsLong();
+        entries.put(key, new Entry<>(value, now + ttlNanos, now));
+        evictIfFull();
+    }
+
+    // invalidating before commit would let a reader cache the old value again
+    public void invalidateAfterCompletion(Collection<? extends K> keys) {
+        TransactionHooks.afterCompletion(() -> invalidateAll(keys));
+    }
+
+    public void invalidateAllAfterCompletion() {
+        TransactionHooks.afterCompletion(this::invalidateAll);
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll(Collection<? extends K> keys) {
+        generation.incrementAndGet();
+        keys.forEach(entries::remove);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStatsResponse.Cache stats() {
+        return CacheStatsResponseCacheBuilder.builder()
+                .name(name)
+                .size(size())
+                .maxSize(maxSize)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .build();
+    }
+
+    private Entry<V> lookup(K key) {
+        var entry = entries.get(key);
+        if (entry != null) {
+            long now = ticker.getAsLong();
+            if (entry.expiresAt - now > 0) {
+                entry.accessedAt = now;
+                hits.increment();
+                return entry;
+            }
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void store(K key, V value, long loadGeneration) {
+        long now = ticker.getAsLong();
+        var entry = new Entry<>(value, now + ttlNanos, now);
+        entries.put(key, entry);
+
+        // an invalidation that bumped the generation before this check has already run its remove,
+        // one that bumps it after will remove the entry itself
+        if (generation.get() != loadGeneration) {
+            entries.remove(key, entry);
+            return;
+        }
+
+        evictIfFull();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+
+        synchronized (evictionLock) {
+            while (entries.size() > maxSize) {
+                evictOne();
+            }
+        }
+    }
+
+    // caller holds the eviction lock
+    private void evictOne() {
+        long now = ticker.getAsLong();
+        Map.Entry<K, Entry<V>> victim = null;
+        int sampled = 0;
+
+        for (var candidate : entries.entrySet()) {
+            if (candidate.getValue().expiresAt - now <= 0) {
+                victim = candidate;
+                break;
+            }
+            if (victim == null || candidate.getValue().accessedAt - victim.getValue().accessedAt < 0) {
+                victim = candidate;
+            }
+            if (++sampled == EVICTION_SAMPLES) {
+                break;
+            }
+        }
+
+        if (victim != null && entries.remove(victim.getKey(), victim.getValue())) {
+            if (victim.getValue().expiresAt - now <= 0) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+        // written by every hit without a lock, a lost update only makes eviction slightly less exact
+        private volatile long accessedAt;
+
+        private Entry(V value, long expiresAt, long accessedAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.accessedAt = accessedAt;
+        }
+    }
+}
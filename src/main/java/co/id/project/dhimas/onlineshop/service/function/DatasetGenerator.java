@@ -0,0 +1,184 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.GeneratorProperties;
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the database with a synthetic catalog, ledger and order history when origin.generator.enabled is set,
+ * so benchmarks and load tests run at production-like cardinality. Runs once on startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class DatasetGenerator implements ApplicationRunner {
+
+    private final GeneratorProperties generatorProperties;
+    private final ItemRepository itemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrdersRepository ordersRepository;
+    private final OrderNoGenerator orderNoGenerator;
+    private final StockService stockService;
+    private final RowCountService rowCountService;
+    private final ItemCatalog itemCatalog;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (generatorProperties.enabled()) {
+            generate();
+        }
+    }
+
+    public Result generate() {
+        var random = new SplittableRandom(generatorProperties.seed());
+
+        var items = generateItems(random);
+        var result = generateOrders(items, random);
+
+        // balances from the ledger in one statement instead of one update per item and chunk
+        stockService.rebuildStock();
+
+        return result;
+    }
+
+    private List<Item> generateItems(SplittableRandom random) {
+        var items = new ArrayList<Item>(generatorProperties.items());
+        var chunk = new ArrayList<Item>(generatorProperties.chunkSize());
+
+        for (int i = 0; i < generatorProperties.items(); i++) {
+            chunk.add(Item.builder()
+                    .name("Item " + i)
+                    .price(1 + random.nextInt(500))
+                    .build());
+
+            if (chunk.size() == generatorProperties.chunkSize() || i == generatorProperties.items() - 1) {
+                writeChunk(() -> {
+                    itemRepository.saveAll(chunk);
+                    rowCountService.add(Item.class, chunk.size());
+                });
+                // ids are assigned on save, unknown ids may already be cached as missing
+                itemCatalog.evict(chunk.stream().map(Item::getId).toList());
+                items.addAll(chunk);
+                chunk.clear();
+            }
+        }
+
+        return items;
+    }
+
+    private Result generateOrders(List<Item> items, SplittableRandom random) {
+        var popularity = new Zipf(items.size(), generatorProperties.zipfExponent(), random);
+        var balances = new int[items.size()];
+        var ledger = new ArrayList<Inventory>(generatorProperties.chunkSize());
+        var orders = new ArrayList<Orders>(generatorProperties.chunkSize());
+        int topUps = 0;
+        int withdrawals = 0;
+
+        // every item starts with some stock, the long tail is still sellable
+        for (int i = 0; i < items.size(); i++) {
+            ledger.add(movement(items.get(i), generatorProperties.restockQty(), InventoryType.T));
+            balances[i] = generatorProperties.restockQty();
+            topUps++;
+
+            if (ledger.size() >= generatorProperties.chunkSize()) {
+                writeMovements(ledger, orders);
+            }
+        }
+
+        for (int n = 0; n < generatorProperties.orders(); n++) {
+            int index = popularity.next(random);
+            var item = items.get(index);
+            int qty = 1 + random.nextInt(generatorProperties.maxOrderQty());
+
+            // restock before the order would oversell, so the ledger never goes below zero
+            if (balances[index] < qty) {
+                int restock = Math.max(generatorProperties.restockQty(), qty);
+                ledger.add(movement(item, restock, InventoryType.T));
+                balances[index] += restock;
+                topUps++;
+            }
+
+            ledger.add(movement(item, qty, InventoryType.W));
+            balances[index] -= qty;
+            withdrawals++;
+
+            orders.add(Orders.builder()
+                    .orderNo(orderNoGenerator.nextOrderNo())
+                    .itemId(item.getId())
+                    .qty(qty)
+                    .price(qty * item.getPrice())
+                    .build());
+
+            if (ledger.size() >= generatorProperties.chunkSize()) {
+                writeMovements(ledger, orders);
+            }
+        }
+
+        writeMovements(ledger, orders);
+
+        return new Result(items.size(), topUps, withdrawals, generatorProperties.orders(),
+                items.get(popularity.mostPopular()).getId());
+    }
+
+    private void writeMovements(List<Inventory> ledger, List<Orders> orders) {
+        if (ledger.isEmpty()) {
+            return;
+        }
+
+        writeChunk(() -> {
+            inventoryRepository.saveAll(ledger);
+            ordersRepository.saveAll(orders);
+            rowCountService.add(Inventory.class, ledger.size());
+            rowCountService.add(Orders.class, orders.size());
+        });
+
+        ledger.clear();
+        orders.clear();
+    }
+
+    private void writeChunk(Runnable writer) {
+        // one transaction per chunk, the persistence context never holds more than a chunk
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            var session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(generatorProperties.batchSize());
+            // generated rows would only push the real working set out of the second-level cache
+            session.setCacheMode(CacheMode.IGNORE);
+            writer.run();
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static Inventory movement(Item item, int qty, InventoryType type) {
+        return Inventory.builder()
+                .itemId(item.getId())
+                .qty(qty)
+                .type(type)
+                .build();
+    }
+
+    /**
+     * Rows written by one run, T and W are the ledger rows by type.
+     */
+    public record Result(int items, int topUps, int withdrawals, int orders, int mostPopularItemId) {
+    }
+}
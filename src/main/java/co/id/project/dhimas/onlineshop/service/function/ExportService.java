@@ -0,0 +1,161 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    // rows written between persistence context clears, same as the repository fetch size
+    static final int CHUNK_SIZE = 500;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public <T> StreamingResponseBody export(ExportFormat format,
+                                            List<String> columns,
+                                            Supplier<Stream<T>> rows,
+                                            Function<T, List<?>> values) {
+        return out -> {
+            // the body runs after the controller returned, so the cursor needs its own transaction
+            var transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+
+            transaction.executeWithoutResult(status -> {
+                try (Stream<T> stream = rows.get()) {
+                    write(format, columns, stream, values, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    private <T> void write(ExportFormat format,
+                           List<String> columns,
+                           Stream<T> stream,
+                           Function<T, List<?>> values,
+                           OutputStream out) throws IOException {
+        var writer = format == ExportFormat.CSV
+                ? new CsvWriter(out)
+                : new NdjsonWriter(objectMapper.createGenerator(out), columns);
+
+        writer.header(columns);
+
+        int written = 0;
+        var iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            writer.row(values.apply(iterator.next()));
+
+            // drop the rows already written so memory stays flat whatever the table size
+            if (++written % CHUNK_SIZE == 0) {
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+
+        writer.flush();
+    }
+
+    private interface RowWriter {
+        void header(List<String> columns) throws IOException;
+
+        void row(List<?> values) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        NdjsonWriter(JsonGenerator generator, List<String> columns) {
+            // the servlet container owns the response stream
+            this.generator = generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are split by our own newline, not jackson's space between root values
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void header(List<String> columns) {
+            // field names are repeated on every line
+        }
+
+        @Override
+        public void row(List<?> values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeObjectField(columns.get(i), values.get(i));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void header(List<String> columns) throws IOException {
+            row(columns);
+        }
+
+        @Override
+        public void row(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+
+            var text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+                    && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.ImportProperties;
+import co.id.project.dhimas.onlineshop.exception.BaseException;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponse;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponseBuilder;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponseErrorBuilder;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+
+    private final ImportProperties importProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public <R, E> ImportResponse importRows(ExportFormat format,
+                                            InputStream in,
+                                            Function<Row, R> toRequest,
+                                            Function<R, E> toEntity,
+                                            Consumer<List<E>> writer) {
+        var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        var rows = format == ExportFormat.CSV ? new CsvReader(reader) : new NdjsonReader(reader, objectMapper);
+
+        var chunk = new ArrayList<Pending<R, E>>(importProperties.chunkSize());
+        var report = new Report(importProperties.maxErrors());
+
+        try {
+            while (rows.hasNext()) {
+                int rowNo = ++report.total;
+
+                try {
+                    var request = toRequest.apply(rows.next());
+
+                    var violations = validator.validate(request);
+                    if (!violations.isEmpty()) {
+                        throw new IllegalArgumentException(describe(violations));
+                    }
+
+                    chunk.add(new Pending<>(rowNo, request, toEntity.apply(request)));
+                } catch (IllegalArgumentException e) {
+                    // bad rows are reported and skipped, the rest of the file still goes in
+                    report.reject(rowNo, e.getMessage());
+                }
+
+                if (chunk.size() == importProperties.chunkSize()) {
+                    writeChunk(chunk, toEntity, writer, report);
+                }
+            }
+        } catch (IOException e) {
+            // the rows read so far are still written and reported, the unread rest counts as one rejected row
+            report.reject(++report.total, "upload could not be read past this row");
+        }
+
+        writeChunk(chunk, toEntity, writer, report);
+
+        return report.toResponse();
+    }
+
+    private <R, E> void writeChunk(List<Pending<R, E>> chunk, Function<R, E> toEntity,
+                                   Consumer<List<E>> writer, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            write(chunk.stream().map(Pending::entity).toList(), writer);
+            report.imported += chunk.size();
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                report.reject(chunk.get(0).row(), writeError(e));
+            } else {
+                // the chunk rolled back as a whole, row by row only the rows that fail again are lost
+                for (var pending : chunk) {
+                    try {
+                        // a fresh entity, the failed attempt may have left a generated id on the old one
+                        write(List.of(toEntity.apply(pending.request())), writer);
+                        report.imported++;
+                    } catch (RuntimeException rowError) {
+                        report.reject(pending.row(), writeError(rowError));
+                    }
+                }
+            }
+        }
+
+        chunk.clear();
+    }
+
+    private <E> void write(List<E> entities, Consumer<List<E>> writer) {
+        // every chunk commits on its own, a failure only rolls back the chunk being written
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(importProperties.batchSize());
+            writer.accept(entities);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    // business errors keep their error type, database messages are not passed on to the caller
+    private static String writeError(RuntimeException e) {
+        return e instanceof BaseException ? e.getMessage() : "row could not be written";
+    }
+
+    private static String describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // a valid row waiting for its chunk, the request is kept to build the entity again on a retry
+    private record Pending<R, E>(int row, R request, E entity) {
+    }
+
+    private static final class Report {
+
+        private final int maxErrors;
+        private final List<ImportResponse.Error> errors = new ArrayList<>();
+        private int total;
+        private int imported;
+        private int rejected;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(int row, String errorDesc) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(ImportResponseErrorBuilder.builder()
+                        .row(row)
+                        .errorDesc(errorDesc)
+                        .build());
+            }
+        }
+
+        private ImportResponse toResponse() {
+            // write errors of a chunk are found after the parse errors of its rows, the report lists them by row
+            errors.sort(Comparator.comparingInt(ImportResponse.Error::row));
+
+            return ImportResponseBuilder.builder()
+                    .total(total)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .errorsTruncated(rejected > errors.size())
+                    .build();
+        }
+    }
+
+    /**
+     * One parsed line of the upload, values by column name.
+     */
+    public record Row(Map<String, String> values) {
+
+        public String text(String column) {
+            return values.get(column);
+        }
+
+        public int integer(String column) {
+            var value = values.get(column);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " must be a number");
+            }
+        }
+    }
+
+    private interface RowReader {
+        boolean hasNext() throws IOException;
+
+        // throws IllegalArgumentException for a line that cannot be parsed, the reader is already past it
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private String line;
+
+        NdjsonReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            while (line == null) {
+                var next = reader.readLine();
+                if (next == null) {
+                    return false;
+                }
+                if (!next.isBlank()) {
+                    line = next;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            var current = line;
+            line = null;
+
+            try {
+                var node = objectMapper.readTree(current);
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("row must be a JSON object");
+                }
+
+                var values = new HashMap<String, String>();
+                node.properties().forEach(field -> {
+                    if (!field.getValue().isNull()) {
+                        values.put(field.getKey(), field.getValue().asText());
+                    }
+                });
+                return new Row(values);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("invalid JSON");
+            }
+        }
+    }
+
+    private static final class CsvReader implements RowReader {
+
+        private final BufferedReader reader;
+        private List<String> header;
+        private List<String> record;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return false;
+                }
+            }
+
+            while (record == null) {
+                var next = readRecord();
+                if (next == null) {
+                    return false;
+                }
+                if (!(next.size() == 1 && next.get(0).isBlank())) {
+                    record = next;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            var current = record;
+            record = null;
+
+            if (current.size() != header.size()) {
+                throw new IllegalArgumentException("expected " + header.size() + " columns but got " + current.size());
+            }
+
+            var values = new HashMap<String, String>();
+            for (int i = 0; i < header.size(); i++) {
+                values.put(header.get(i).trim(), current.get(i).isEmpty() ? null : current.get(i));
+            }
+            return new Row(values);
+        }
+
+        // RFC 4180: quoted fields may hold separators, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            var fields = new ArrayList<String>();
+            var field = new StringBuilder();
+            boolean quoted = false;
+
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of item snapshots for order pricing and item reads.
+ * <p>
+ * Item writes on this node evict their ids after commit, so the next order here sees the new price. Other nodes
+ * do not hear of the write and keep pricing orders with their snapshot until it is older than
+ * origin.item.cache.ttl (10 minutes by default); shorten the ttl where a price change must reach every node sooner.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemCatalog {
+
+    private final ItemRepository itemRepository;
+    private final BoundedCache<Integer, Optional<Snapshot>> itemCache;
+
+    public Optional<Snapshot> find(int id) {
+        // unknown ids are cached too, createItem evicts the id it hands out
+        return itemCache.get(id, key -> itemRepository.findById(key).map(Snapshot::of));
+    }
+
+    public Map<Integer, Snapshot> findAll(Collection<Integer> ids) {
+        var found = new HashMap<Integer, Snapshot>();
+
+        itemCache.getAll(ids, this::load)
+                .forEach((id, snapshot) -> snapshot.ifPresent(s -> found.put(id, s)));
+
+        return found;
+    }
+
+    public void evict(Collection<Integer> ids) {
+        itemCache.invalidateAfterCompletion(ids);
+    }
+
+    private Map<Integer, Optional<Snapshot>> load(Set<Integer> ids) {
+        var items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        var loaded = new HashMap<Integer, Optional<Snapshot>>();
+        ids.forEach(id -> loaded.put(id, Optional.ofNullable(items.get(id)).map(Snapshot::of)));
+        return loaded;
+    }
+
+    /**
+     * Immutable copy of one item row, name and price always belong to the same row version.
+     */
+    public record Snapshot(int id, String name, int price) {
+
+        static Snapshot of(Item item) {
+            return new Snapshot(item.getId(), item.getName(), item.getPrice());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.OrderProperties;
+import co.id.project.dhimas.onlineshop.model.response.AdmissionStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.AdmissionStatsResponseBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of createOrder: a token bucket per item, one over all items
+ * and a concurrency limit that adapts to how long admitted orders take.
+ */
+@Component
+public class OrderAdmission {
+
+    // nothing tells when a slot frees up, one second is what clients get to wait
+    private static final Duration SHED_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final int ITEM_BUCKETS = 10_000;
+
+    private final OrderProperties.Admission properties;
+    private final LongSupplier ticker;
+    private final TokenBucket global;
+    // an evicted bucket comes back full, which only happens to items without orders for a minute
+    private final BoundedCache<Integer, TokenBucket> items;
+    private final AdaptiveLimit concurrency;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    @Autowired
+    public OrderAdmission(OrderProperties orderProperties) {
+        this(orderProperties, System::nanoTime);
+    }
+
+    OrderAdmission(OrderProperties orderProperties, LongSupplier ticker) {
+        this.properties = orderProperties.admission();
+        this.ticker = ticker;
+        this.global = new TokenBucket(properties.globalRate(), properties.globalBurst(), ticker);
+        this.items = new BoundedCache<>("admission", ITEM_BUCKETS, Duration.ofMinutes(1), ticker);
+        this.concurrency = new AdaptiveLimit(properties.initialLimit(), properties.minLimit(),
+                properties.maxLimit(), properties.latencyTolerance());
+    }
+
+    public Ticket admit(int itemId) {
+        if (!properties.enabled()) {
+            return new Ticket(null, 0, null);
+        }
+
+        // a hot item is turned away before it uses up the rate of all the others
+        var item = items.get(itemId, id -> new TokenBucket(properties.itemRate(), properties.itemBurst(), ticker));
+        long wait = item.tryTake();
+        if (wait == 0) {
+            wait = global.tryTake();
+            // an overload of all items must not also drain the bucket of this one
+            if (wait > 0) {
+                item.giveBack();
+            }
+        }
+
+        if (wait > 0) {
+            throttled.increment();
+            return new Ticket(null, 0, Duration.ofNanos(wait));
+        }
+
+        if (!concurrency.tryAcquire()) {
+            shed.increment();
+            return new Ticket(null, 0, SHED_RETRY_AFTER);
+        }
+
+        admitted.increment();
+        return new Ticket(concurrency, System.nanoTime(), null);
+    }
+
+    public AdmissionStatsResponse stats() {
+        return AdmissionStatsResponseBuilder.builder()
+                .enabled(properties.enabled())
+                .admitted(admitted.sum())
+                .throttled(throttled.sum())
+                .shed(shed.sum())
+                .limit(concurrency.limit())
+                .inFlight(concurrency.inFlight())
+                .baselineMicros(concurrency.baselineNanos() / 1_000)
+                .build();
+    }
+
+    public static final class Ticket implements AutoCloseable {
+
+        private final AdaptiveLimit concurrency;
+        private final long start;
+        private final Duration retryAfter;
+        private boolean sampled = true;
+
+        private Ticket(AdaptiveLimit concurrency, long start, Duration retryAfter) {
+            this.concurrency = concurrency;
+            this.start = start;
+            this.retryAfter = retryAfter;
+        }
+
+        public boolean admitted() {
+            return retryAfter == null;
+        }
+
+        public Duration retryAfter() {
+            return retryAfter;
+        }
+
+        // business rejections return early, their latency would drag the baseline down
+        public void discardSample() {
+            sampled = false;
+        }
+
+        @Override
+        public void close() {
+            if (concurrency == null) {
+                return;
+            }
+
+            if (sampled) {
+                concurrency.release(System.nanoTime() - start);
+            } else {
+                concurrency.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class OrderNoGenerator {
+
+    private final OrdersRepository ordersRepository;
+
+    private volatile Block block = new Block(0, 0);
+
+    // taken from the sequence itself, a block can never reach into the next nextval's numbers
+    private long blockSize;
+
+    public String nextOrderNo() {
+        while (true) {
+            var current = block;
+            long value = current.next.getAndIncrement();
+
+            if (value < current.limit) {
+                return "O" + value;
+            }
+
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        // another thread may have already replaced the block
+        if (block != exhausted) {
+            return;
+        }
+
+        if (blockSize == 0) {
+            blockSize = ordersRepository.orderNoBlockSize();
+        }
+
+        long low = ordersRepository.nextOrderNoBlock();
+        block = new Block(low, low + blockSize);
+    }
+
+    // hi/lo range [next, limit) handed out by one sequence call
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long low, long limit) {
+            this.next = new AtomicLong(low);
+            this.limit = limit;
+        }
+    }
+}
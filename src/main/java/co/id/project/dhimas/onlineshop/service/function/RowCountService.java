@@ -0,0 +1,121 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.RowCountProperties;
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Row totals of the page endpoints without a COUNT(*) per request.
+ * <p>
+ * A total is loaded with COUNT(*) and then follows the writes committed on this node. It is approximate:
+ * writes of other nodes are not seen, and a write whose commit overlaps the COUNT(*) may be counted twice
+ * or not at all. Every total is counted again once it is older than the ttl, which bounds both.
+ */
+@Service
+public class RowCountService {
+
+    private final ItemRepository itemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrdersRepository ordersRepository;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final Map<Class<?>, Counter> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RowCountService(ItemRepository itemRepository, InventoryRepository inventoryRepository,
+                           OrdersRepository ordersRepository, RowCountProperties properties) {
+        this(itemRepository, inventoryRepository, ordersRepository, properties.ttl(), System::nanoTime);
+    }
+
+    RowCountService(ItemRepository itemRepository, InventoryRepository inventoryRepository,
+                    OrdersRepository ordersRepository, Duration ttl, LongSupplier ticker) {
+        this.itemRepository = itemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.ordersRepository = ordersRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    public long count(Class<?> entity) {
+        long now = ticker.getAsLong();
+        var counter = counts.get(entity);
+
+        if (counter == null || counter.expired(now)) {
+            // one COUNT(*) per table, callers of the same table wait for it instead of running their own
+            counter = counts.compute(entity, (e, current) -> current != null && !current.expired(now)
+                    ? current
+                    : new Counter(loadCount(e), ticker.getAsLong()));
+        }
+
+        return Math.max(counter.value.get(), 0);
+    }
+
+    public void add(Class<?> entity, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(entity, delta);
+            return;
+        }
+
+        // only committed rows are counted, a rollback leaves the counter alone
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(entity, delta);
+            }
+        });
+    }
+
+    private void apply(Class<?> entity, long delta) {
+        // while a COUNT(*) runs this is still the old counter or none, the new total is left to the query
+        var count = counts.get(entity);
+
+        if (count != null) {
+            count.value.addAndGet(delta);
+        }
+    }
+
+    private long loadCount(Class<?> entity) {
+        if (entity == Item.class) {
+            return itemRepository.count();
+        }
+        if (entity == Inventory.class) {
+            return inventoryRepository.count();
+        }
+        if (entity == Orders.class) {
+            return ordersRepository.count();
+        }
+
+        throw new IllegalArgumentException("No row counter for " + entity.getName());
+    }
+
+    private final class Counter {
+
+        private final AtomicLong value;
+        private final long loadedAt;
+
+        private Counter(long value, long loadedAt) {
+            this.value = new AtomicLong(value);
+            this.loadedAt = loadedAt;
+        }
+
+        // a counter loaded after the caller read the clock is never expired for it
+        private boolean expired(long now) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Requests with the same key are handled one after another by the single thread of their lane,
+ * keys are spread over a fixed number of lanes so different keys still run in parallel.
+ * Requests that queued up while the lane was busy are handed to the handler together as one group.
+ */
+public class SerialLanes<T, R> implements AutoCloseable {
+
+    private final Lane[] lanes;
+    private final int maxGroupSize;
+
+    // Lane is an inner class of a generic type, an array of it can only be created raw
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SerialLanes(String name, int laneCount, int maxGroupSize, int queueCapacity) {
+        this.maxGroupSize = maxGroupSize;
+        this.lanes = new SerialLanes.Lane[laneCount];
+
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(name + "-lane-" + i, queueCapacity);
+        }
+    }
+
+    public boolean enabled() {
+        return lanes.length > 0;
+    }
+
+    /**
+     * Blocks until the lane of the key has handled the request.
+     *
+     * @param handler completes every task it is given, the same handler is expected for every call
+     */
+    public R submit(int key, T request, Consumer<List<Task<T, R>>> handler) {
+        var task = new Task<T, R>(request, handler);
+        var lane = lanes[Math.floorMod(key, lanes.length)];
+
+        try {
+            // a full queue pushes back on the caller instead of growing without bound
+            lane.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing for " + lane.thread.getName(), e);
+        }
+
+        return SingleFlight.join(task.future);
+    }
+
+    /**
+     * Queues the request without waiting for the lane.
+     *
+     * @return completes once the lane has handled the request, null when the queue of the lane is full
+     */
+    public CompletableFuture<R> offer(int key, T request, Consumer<List<Task<T, R>>> handler) {
+        var task = new Task<T, R>(request, handler);
+        var lane = lanes[Math.floorMod(key, lanes.length)];
+
+        return lane.queue.offer(task) ? task.future : null;
+    }
+
+    // requests waiting behind the ones being handled, over all lanes
+    public int queued() {
+        int queued = 0;
+        for (var lane : lanes) {
+            queued += lane.queue.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void close() {
+        for (var lane : lanes) {
+            lane.thread.interrupt();
+        }
+    }
+
+    public static final class Task<T, R> {
+
+        private final T request;
+        private final Consumer<List<Task<T, R>>> handler;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private Task(T request, Consumer<List<Task<T, R>>> handler) {
+            this.request = request;
+            this.handler = handler;
+        }
+
+        public T request() {
+            return request;
+        }
+
+        public void complete(R response) {
+            future.complete(response);
+        }
+
+        public void fail(RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Task<T, R>> queue;
+        private final Thread thread;
+
+        private Lane(String name, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            var group = new ArrayList<Task<T, R>>(maxGroupSize);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    group.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(group, maxGroupSize - 1);
+
+                handle(group);
+                group.clear();
+            }
+
+            // requests still queued at shutdown are not left waiting forever
+            queue.forEach(task -> task.fail(new IllegalStateException(thread.getName() + " is shut down")));
+        }
+
+        private void handle(List<Task<T, R>> group) {
+            try {
+                group.get(0).handler.accept(List.copyOf(group));
+            } catch (RuntimeException | Error e) {
+                if (group.size() == 1) {
+                    group.get(0).future.completeExceptionally(e);
+                } else {
+                    // one bad request must not fail the others of its group, retry them one by one
+                    group.stream()
+                            .filter(task -> !task.future.isDone())
+                            .forEach(task -> handle(List.of(task)));
+                }
+            }
+
+            for (var task : group) {
+                if (!task.future.isDone()) {
+                    task.fail(new IllegalStateException("request was not completed by the handler"));
+                }
+            }
+        }
+    }
+}
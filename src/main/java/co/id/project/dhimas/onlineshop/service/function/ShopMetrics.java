@@ -0,0 +1,40 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded by the services themselves. Latency per controller method (http.server.requests),
+ * per repository call (spring.data.repository.invocations) and the Hikari pool gauges come from Actuator.
+ */
+@Component
+public class ShopMetrics {
+
+    public static final String STOCK_NOT_ENOUGH = "shop.stock.not.enough";
+    public static final String ITEM_TAG = "item";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer remainingStock;
+
+    public ShopMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.remainingStock = Timer.builder("shop.stock.remaining")
+                .description("StockService.remainingStock, cache hits included")
+                .register(meterRegistry);
+    }
+
+    public void remainingStock(long nanos) {
+        remainingStock.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param operation what was refused: order, batch, reservation, inventory or order-update
+     */
+    public void stockNotEnough(int itemId, String operation) {
+        meterRegistry.counter(STOCK_NOT_ENOUGH, ITEM_TAG, Integer.toString(itemId), "operation", operation)
+                .increment();
+    }
+}
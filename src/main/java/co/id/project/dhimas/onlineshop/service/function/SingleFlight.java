@@ -0,0 +1,88 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.response.CoalescingStatsResponse;
+import co.id.project.dhimas.onlineshop.model.response.CoalescingStatsResponseGroupBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent calls for the same key share the result of the one call already running.
+ * Only callers of the same key wait on each other, there is no lock across keys.
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Function<? super K, ? extends V> loader) {
+        calls.increment();
+
+        var mine = new CompletableFuture<V>();
+        var running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+
+        try {
+            V value = loader.apply(key);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // callers arriving after a write must not join a read that started before it
+    public void forget(Collection<? extends K> keys) {
+        keys.forEach(inFlight::remove);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public CoalescingStatsResponse.Group stats() {
+        long total = calls.sum();
+        long shared = coalesced.sum();
+
+        return CoalescingStatsResponseGroupBuilder.builder()
+                .name(name)
+                .calls(total)
+                .executions(total - shared)
+                .coalesced(shared)
+                .inFlight(inFlight.size())
+                .build();
+    }
+
+    static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // same exception the caller running the load got
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.StockProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stock this node has leased from the shared balance, per item. Orders are decided against the lease
+ * in memory and only write this node's lease row, so nodes do not queue on the same balance row.
+ * The unsold part goes back to the balance when the lease is idle or the node shuts down,
+ * leases of a node that died are given back by the others once they expire.
+ */
+@Service
+public class StockLeases {
+
+    private final StockService stockService;
+    private final StockProperties.Lease properties;
+    private final String nodeId;
+    private final Clock clock;
+    private final LongSupplier ticker;
+
+    private final ConcurrentHashMap<Integer, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintenance;
+
+    @Autowired
+    public StockLeases(StockService stockService, StockProperties stockProperties) {
+        this(stockService, stockProperties.lease(), Clock.systemUTC(), System::nanoTime);
+    }
+
+    StockLeases(StockService stockService, StockProperties.Lease properties, Clock clock, LongSupplier ticker) {
+        this.stockService = stockService;
+        this.properties = properties;
+        this.nodeId = properties.nodeId().isBlank() ? UUID.randomUUID().toString() : properties.nodeId();
+        this.clock = clock;
+        this.ticker = ticker;
+        this.maintenance = properties.enabled() ? startMaintenance() : null;
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Takes qty out of the lease in memory, leasing another block first when it runs short.
+     * Called before the order's transaction so the new lease commits on its own.
+     */
+    public boolean take(int itemId, int qty) {
+        while (true) {
+            var lease = leases.computeIfAbsent(itemId, id -> new Lease());
+
+            synchronized (lease) {
+                // given back by maintenance in the meantime, the next round finds a fresh one
+                if (lease.closed) {
+                    continue;
+                }
+
+                lease.lastUsed = ticker.getAsLong();
+
+                if (lease.remaining < qty) {
+                    int wanted = Math.max(properties.blockSize(), qty - lease.remaining);
+                    lease.remaining += stockService.leaseStock(itemId, wanted, nodeId, expiresAt());
+                }
+
+                if (lease.remaining < qty) {
+                    return false;
+                }
+
+                lease.remaining -= qty;
+                return true;
+            }
+        }
+    }
+
+    // the sale itself, inside the order's transaction
+    public boolean withdrawStock(int itemId, int qty) {
+        if (stockService.withdrawLeasedStock(itemId, qty, nodeId)) {
+            return true;
+        }
+
+        // the row was given back by another node after missed renewals, memory no longer matches it
+        var lease = leases.remove(itemId);
+        if (lease != null) {
+            synchronized (lease) {
+                lease.closed = true;
+            }
+        }
+
+        return false;
+    }
+
+    // qty from take whose order did not go through
+    public void giveBack(int itemId, int qty) {
+        var lease = leases.get(itemId);
+
+        if (lease != null) {
+            synchronized (lease) {
+                if (!lease.closed) {
+                    lease.remaining += qty;
+                    return;
+                }
+            }
+        }
+
+        // nobody tracks the row anymore, straight back to the balance
+        stockService.returnLease(itemId, qty, nodeId);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+
+        leases.keySet().forEach(this::returnLease);
+    }
+
+    void maintain() {
+        stockService.renewLeases(nodeId, expiresAt());
+
+        long idleNanos = properties.idleTimeout().toNanos();
+        long now = ticker.getAsLong();
+        leases.forEach((itemId, lease) -> {
+            if (now - lease.lastUsed >= idleNanos) {
+                returnLease(itemId);
+            }
+        });
+
+        stockService.reclaimExpiredLeases(clock.instant());
+    }
+
+    private void returnLease(int itemId) {
+        var lease = leases.get(itemId);
+        if (lease == null) {
+            return;
+        }
+
+        int unsold;
+        synchronized (lease) {
+            lease.closed = true;
+            unsold = lease.remaining;
+            lease.remaining = 0;
+            leases.remove(itemId, lease);
+        }
+
+        stockService.returnLease(itemId, unsold, nodeId);
+    }
+
+    private Instant expiresAt() {
+        return clock.instant().plus(properties.ttl());
+    }
+
+    private ScheduledExecutorService startMaintenance() {
+        var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "stock-lease-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // renewed well before the ttl runs out so other nodes never take a live lease
+        long period = Math.max(properties.ttl().dividedBy(3).toMillis(), 1);
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (RuntimeException e) {
+                // next round tries again, a missed renewal is covered by the ttl margin
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        return executor;
+    }
+
+    private static final class Lease {
+
+        private int remaining;
+        private long lastUsed;
+        private boolean closed;
+    }
+}
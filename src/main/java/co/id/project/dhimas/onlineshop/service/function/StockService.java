@@ -1,18 +1,324 @@
 package co.id.project.dhimas.onlineshop.service.function;
 
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.StockBalance;
+import co.id.project.dhimas.onlineshop.model.entity.StockLease;
+import co.id.project.dhimas.onlineshop.model.entity.StockReservation;
 import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.StockBalanceRepository;
+import co.id.project.dhimas.onlineshop.repository.StockLeaseRepository;
+import co.id.project.dhimas.onlineshop.repository.StockReservationRepository;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class StockService {
 
+    private final StockBalanceRepository stockBalanceRepository;
     private final InventoryRepository inventoryRepository;
+    private final RowCountService rowCountService;
+    private final BoundedCache<Integer, Integer> stockCache;
+    private final SingleFlight<Integer, Integer> stockReads;
+    private final BatchLoader<Integer, Integer> stockLookups;
+    private final StockLeaseRepository stockLeaseRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ShopMetrics shopMetrics;
 
-    @Transactional(readOnly = true)
     public int remainingStock(int itemId) {
-        return inventoryRepository.getStock(itemId);
+        long start = System.nanoTime();
+        try {
+            // display value, may lag a write by the TTL at most; decisions use currentStock or withdrawStock
+            // concurrent misses for the same item share one query, misses for different items are batched
+            int available = stockCache.get(itemId, id -> stockReads.execute(id,
+                    key -> stockLookups.load(key, this::currentStocks)));
+
+            return Math.max(available, 0);
+        } finally {
+            shopMetrics.remainingStock(System.nanoTime() - start);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int currentStock(int itemId) {
+        // stock held by reservations is not available, same as lockStock and leaseStock
+        return stockBalanceRepository.findById(itemId)
+                .map(s -> s.getQty() - s.getHeld())
+                .orElse(0);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> currentStocks(Set<Integer> itemIds) {
+        var stocks = stockBalanceRepository.findAllWithLeases(itemIds).stream()
+                .collect(Collectors.toMap(StockBalance::getItemId, StockBalance::getQty));
+
+        // items without a balance row have no stock
+        itemIds.forEach(itemId -> stocks.putIfAbsent(itemId, 0));
+
+        return stocks;
+    }
+
+    @Transactional
+    public Map<Integer, Integer> lockStock(Collection<Integer> itemIds) {
+        // balances stay locked until the caller's transaction ends, stock held by reservations is left out
+        return stockBalanceRepository.findAllForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(StockBalance::getItemId, s -> s.getQty() - s.getHeld()));
+    }
+
+    /**
+     * Holds qty of the item for the reservation, on the balance row like a deduction so a hold and
+     * an order racing for the last units can never both win, whichever node they run on.
+     */
+    @Transactional
+    public boolean holdStock(String reservationId, int itemId, int qty, Instant expiresAt) {
+        if (stockBalanceRepository.holdStock(itemId, qty) == 0) {
+            return false;
+        }
+
+        stockReservationRepository.save(new StockReservation(reservationId, itemId, qty, expiresAt));
+
+        invalidateAfterCompletion(List.of(itemId));
+
+        return true;
+    }
+
+    /**
+     * Removes the reservation and gives its hold back.
+     *
+     * @return false when the reservation was already confirmed, released or expired
+     */
+    @Transactional
+    public boolean releaseStock(String reservationId) {
+        var reservation = stockReservationRepository.findByIdForUpdate(reservationId);
+
+        reservation.ifPresent(this::release);
+
+        return reservation.isPresent();
+    }
+
+    /**
+     * Removes a reservation that has not expired, its hold stays until withdrawHeldStock takes it
+     * in the same transaction.
+     */
+    @Transactional
+    public Optional<StockReservation> takeReservation(String reservationId, Instant now) {
+        // an expired row is left for the reclaim, for the caller it is gone already
+        var reservation = stockReservationRepository.findByIdForUpdate(reservationId)
+                .filter(r -> r.getExpiresAt().isAfter(now));
+
+        reservation.ifPresent(stockReservationRepository::delete);
+
+        return reservation;
+    }
+
+    @Transactional
+    public int reclaimExpiredHolds(Instant now) {
+        // reservations of nodes that stopped before their expiry fired
+        var expired = stockReservationRepository.findExpiredForUpdate(now);
+
+        expired.forEach(this::release);
+
+        return expired.size();
+    }
+
+    @Transactional
+    public void adjustStock(int itemId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        // first movement of an item has no balance row yet, the empty row keeps a concurrent one's qty and held
+        if (stockBalanceRepository.addStock(itemId, delta) == 0) {
+            stockBalanceRepository.createIfAbsent(itemId);
+            stockBalanceRepository.addStock(itemId, delta);
+        }
+
+        invalidateAfterCompletion(List.of(itemId));
+    }
+
+    @Transactional
+    public boolean withdrawStock(int itemId, int qty) {
+        // compare-and-set on the balance row, the row stays locked until commit
+        if (stockBalanceRepository.deductStock(itemId, qty) == 0) {
+            return false;
+        }
+
+        recordWithdrawal(itemId, qty);
+
+        return true;
+    }
+
+    // a ledger change that lowers the balance, checked against the stock not held and applied in one update
+    @Transactional
+    public boolean deductStock(int itemId, int qty) {
+        if (stockBalanceRepository.deductStock(itemId, qty) == 0) {
+            return false;
+        }
+
+        invalidateAfterCompletion(List.of(itemId));
+
+        return true;
+    }
+
+    // stock of a changed or deleted order goes back through the ledger like any other T movement
+    @Transactional
+    public void restoreStock(int itemId, int qty) {
+        recordMovements(List.of(Inventory.builder()
+                .itemId(itemId)
+                .qty(qty)
+                .type(InventoryType.T)
+                .build()));
+    }
+
+    // the qty of a reservation taken by takeReservation, out of the balance and the hold at once
+    @Transactional
+    public boolean withdrawHeldStock(int itemId, int qty) {
+        if (stockBalanceRepository.deductHeldStock(itemId, qty) == 0) {
+            return false;
+        }
+
+        recordWithdrawal(itemId, qty);
+
+        return true;
+    }
+
+    @Transactional
+    public boolean withdrawLeasedStock(int itemId, int qty, String nodeId) {
+        // the node's own lease row instead of the shared balance row
+        if (stockLeaseRepository.deductLease(itemId, nodeId, qty) == 0) {
+            return false;
+        }
+
+        recordWithdrawal(itemId, qty);
+
+        return true;
+    }
+
+    /**
+     * Moves up to qty of the item from the shared balance into the lease of the node.
+     *
+     * @return qty actually leased, less when the balance cannot cover all of it
+     */
+    @Transactional
+    public int leaseStock(int itemId, int qty, String nodeId, Instant expiresAt) {
+        int available = stockBalanceRepository.findById(itemId)
+                .map(s -> s.getQty() - s.getHeld())
+                .orElse(0);
+        int leased = Math.min(qty, available);
+
+        // a hold or another node may have taken part of it since the read, then this round leases nothing
+        if (leased <= 0 || stockBalanceRepository.deductStock(itemId, leased) == 0) {
+            return 0;
+        }
+
+        if (stockLeaseRepository.addLease(itemId, nodeId, leased, expiresAt) == 0) {
+            stockLeaseRepository.save(new StockLease(itemId, nodeId, leased, expiresAt));
+        }
+
+        return leased;
+    }
+
+    @Transactional
+    public void returnLease(int itemId, int qty, String nodeId) {
+        // sales already taken from the lease in memory may still be on their way to the row
+        if (qty > 0 && stockLeaseRepository.deductLease(itemId, nodeId, qty) > 0) {
+            stockBalanceRepository.addStock(itemId, qty);
+        }
+    }
+
+    @Transactional
+    public void renewLeases(String nodeId, Instant expiresAt) {
+        stockLeaseRepository.renewLeases(nodeId, expiresAt);
+    }
+
+    @Transactional
+    public int reclaimExpiredLeases(Instant now) {
+        // leases of nodes that stopped without giving their stock back
+        var expired = stockLeaseRepository.findExpiredForUpdate(now);
+
+        for (var lease : expired) {
+            stockBalanceRepository.addStock(lease.getItemId(), lease.getQty());
+        }
+        stockLeaseRepository.deleteAllInBatch(expired);
+
+        return expired.size();
+    }
+
+    @Transactional
+    public void withdrawStock(List<Inventory> withdrawals) {
+        // callers check the quantities against the balances locked by lockStock
+        inventoryRepository.saveAll(withdrawals);
+
+        rowCountService.add(Inventory.class, withdrawals.size());
+
+        var deductions = withdrawals.stream()
+                .collect(Collectors.groupingBy(Inventory::getItemId, Collectors.summingInt(Inventory::getQty)));
+
+        deductions.forEach((itemId, qty) -> stockBalanceRepository.addStock(itemId, -qty));
+
+        invalidateAfterCompletion(deductions.keySet());
+    }
+
+    @Transactional
+    public void recordMovements(List<Inventory> movements) {
+        inventoryRepository.saveAll(movements);
+
+        rowCountService.add(Inventory.class, movements.size());
+
+        // one balance update per item instead of one per ledger row
+        movements.stream()
+                .collect(Collectors.groupingBy(Inventory::getItemId,
+                        Collectors.summingInt(i -> i.getType().signedQty(i.getQty()))))
+                .forEach(this::adjustStock);
+    }
+
+    @Transactional
+    public void rebuildStock() {
+        // recompute every balance from the T/W ledger
+        stockBalanceRepository.deleteAllInBatch();
+        stockBalanceRepository.rebuildFromLedger();
+
+        TransactionHooks.afterCompletion(() -> {
+            stockCache.invalidateAll();
+            stockReads.forgetAll();
+        });
+    }
+
+    private void release(StockReservation reservation) {
+        stockReservationRepository.delete(reservation);
+        stockBalanceRepository.releaseStock(reservation.getItemId(), reservation.getQty());
+
+        invalidateAfterCompletion(List.of(reservation.getItemId()));
+    }
+
+    private void recordWithdrawal(int itemId, int qty) {
+        var withdrawal = Inventory.builder()
+                .itemId(itemId)
+                .qty(qty)
+                .type(InventoryType.W)
+                .build();
+
+        inventoryRepository.save(withdrawal);
+
+        rowCountService.add(Inventory.class, 1);
+
+        invalidateAfterCompletion(List.of(itemId));
+    }
+
+    private void invalidateAfterCompletion(Collection<Integer> itemIds) {
+        TransactionHooks.afterCompletion(() -> {
+            stockCache.invalidateAll(itemIds);
+            stockReads.forget(itemIds);
+        });
     }
 }
@@ -0,0 +1,160 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel: timeouts are put in the bucket of the tick they expire on, and one thread
+ * visits one bucket per tick. Scheduling and cancelling are O(1), there is no timer per timeout
+ * and a timeout costs one small object. Expiry fires up to one tick late.
+ */
+public class TimingWheel<T> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout<T>>[] buckets;
+    private final Consumer<T> onExpiry;
+    private final LongSupplier ticker;
+    private final long startNanos;
+
+    // filled by any thread, moved into the buckets by the ticking thread only
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private long tick;
+
+    private final Thread thread;
+
+    public TimingWheel(String name, Duration tickDuration, int wheelSize, Consumer<T> onExpiry) {
+        this(tickDuration, wheelSize, onExpiry, System::nanoTime);
+
+        thread.setName(name + "-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // package-private for tests, ticks are driven by calling advance
+    // the bucket array is created raw, generic arrays cannot be created directly
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(Duration tickDuration, int wheelSize, Consumer<T> onExpiry, LongSupplier ticker) {
+        // power of two so the bucket is a mask instead of a modulo
+        int size = Integer.highestOneBit(Math.max(wheelSize, 1) * 2 - 1);
+
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        this.onExpiry = onExpiry;
+        this.ticker = ticker;
+        this.startNanos = ticker.getAsLong();
+        this.thread = new Thread(this::run);
+
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+    }
+
+    public Timeout<T> schedule(T value, Duration delay) {
+        long deadline = ticker.getAsLong() - startNanos + delay.toNanos();
+        var timeout = new Timeout<>(value, Math.max(deadline, 0));
+
+        scheduled.add(timeout);
+
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+
+    // runs every tick that is due by now
+    synchronized void advance() {
+        long now = ticker.getAsLong() - startNanos;
+
+        while ((tick + 1) * tickNanos <= now) {
+            transferScheduled();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout<T> timeout;
+
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            // a deadline already passed goes into the current bucket
+            long expiryTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.rounds = (expiryTick - tick) / buckets.length;
+            buckets[(int) (expiryTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> bucket) {
+        int kept = 0;
+
+        for (var timeout : bucket) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            if (timeout.rounds > 0) {
+                // due on a later turn of the wheel
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+                continue;
+            }
+
+            if (timeout.state.compareAndSet(false, true)) {
+                onExpiry.accept(timeout.value);
+            }
+        }
+
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(tickNanos);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            advance();
+        }
+    }
+
+    public static final class Timeout<T> {
+
+        private final T value;
+        private final long deadlineNanos;
+        // set once, by whichever comes first of expiry and cancel
+        private final AtomicBoolean state = new AtomicBoolean();
+        private long rounds;
+
+        private Timeout(T value, long deadlineNanos) {
+            this.value = value;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * @return false when the timeout already expired or was cancelled before
+         */
+        public boolean cancel() {
+            return state.compareAndSet(false, true);
+        }
+
+        private boolean isCancelled() {
+            return state.get();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit with bursts. Kept as the time at which the bucket would be full again (GCRA),
+ * so taking a token is one compare-and-set and nothing has to refill it in the background.
+ */
+public class TokenBucket {
+
+    private final long interval;
+    private final long capacity;
+    private final LongSupplier ticker;
+
+    // nanos, every token taken pushes it one interval further
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier ticker) {
+        this.interval = Math.max(Math.round(1_000_000_000 / permitsPerSecond), 1);
+        this.capacity = interval * burst;
+        this.ticker = ticker;
+        this.fullAt = new AtomicLong(ticker.getAsLong());
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanos until one is available
+     */
+    public long tryTake() {
+        while (true) {
+            long now = ticker.getAsLong();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+
+            long wait = next - now - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // returns a token taken by tryTake that ended up not being used
+    public void giveBack() {
+        fullAt.addAndGet(-interval);
+    }
+}
@@ -0,0 +1,56 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distributed index in [0, n): rank k is picked with weight 1 / (k + 1)^exponent, exponent 0 is uniform.
+ * Ranks are shuffled over the indexes, so the popular ones are not simply the lowest ids.
+ */
+public class Zipf {
+
+    // cumulative weights by rank, normalised to end at 1
+    private final double[] cdf;
+    private final int[] indexByRank;
+
+    public Zipf(int n, double exponent, SplittableRandom random) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+
+        indexByRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexByRank[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexByRank[i];
+            indexByRank[i] = indexByRank[j];
+            indexByRank[j] = swap;
+        }
+    }
+
+    public int next(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        // not found gives -(insertion point) - 1, the first rank whose cumulative weight is above the draw
+        rank = rank < 0 ? -rank - 1 : rank;
+        return indexByRank[Math.min(rank, cdf.length - 1)];
+    }
+
+    /**
+     * @return the index drawn most often
+     */
+    public int mostPopular() {
+        return indexByRank[0];
+    }
+}
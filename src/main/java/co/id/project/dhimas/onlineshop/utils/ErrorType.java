@@ -7,7 +7,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public enum ErrorType {
     RESOURCE_NOT_FOUND(991, "RESOURCE_NOT_FOUND"),
-    STOCK_NOT_ENOUGH(992, "STOCK_NOT_ENOUGH");
+    STOCK_NOT_ENOUGH(992, "STOCK_NOT_ENOUGH"),
+    ORDER_THROTTLED(993, "ORDER_THROTTLED");
 
     private final int errorCode;
     private final String message;
@@ -2,5 +2,10 @@ package co.id.project.dhimas.onlineshop.utils;
 
 public enum InventoryType {
     T,
-    W
+    W;
+
+    // signed effect of a ledger row on the stock balance
+    public int signedQty(int qty) {
+        return this == T ? qty : -qty;
+    }
 }
@@ -0,0 +1,6 @@
+package co.id.project.dhimas.onlineshop.utils;
+
+public enum OrderLineStatus {
+    CREATED,
+    REJECTED
+}
@@ -0,0 +1,8 @@
+package co.id.project.dhimas.onlineshop.utils;
+
+public enum OrderStatus {
+    QUEUED,
+    CREATED,
+    REJECTED,
+    FAILED
+}
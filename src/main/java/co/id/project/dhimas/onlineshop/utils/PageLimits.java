@@ -0,0 +1,11 @@
+package co.id.project.dhimas.onlineshop.utils;
+
+// bounds of the page and keyset parameters of the list endpoints
+public final class PageLimits {
+
+    // a page is read and mapped in memory at once, whole tables go through the export endpoints
+    public static final int MAX_SIZE = 1000;
+
+    private PageLimits() {
+    }
+}
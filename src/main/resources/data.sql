@@ -1,28 +1,53 @@
-INSERT INTO item (name, price) VALUES ('Pen', 5),
-                                      ('Book', 10),
-                                      ('Bag', 30),
-                                      ('Pencil', 3),
-                                      ('Shoe', 45),
-                                      ('Box', 5),
-                                      ('Cap', 25);
+INSERT INTO item (id, name, price, version) VALUES (1, 'Pen', 5, 0),
+                                                   (2, 'Book', 10, 0),
+                                                   (3, 'Bag', 30, 0),
+                                                   (4, 'Pencil', 3, 0),
+                                                   (5, 'Shoe', 45, 0),
+                                                   (6, 'Box', 5, 0),
+                                                   (7, 'Cap', 25, 0);
 
-INSERT INTO inventory (item_id, qty, type) VALUES (1, 5, 'T'),
-                                                  (2, 10, 'T'),
-                                                  (3, 30, 'T'),
-                                                  (4, 3, 'T'),
-                                                  (5, 45, 'T'),
-                                                  (6, 5, 'T'),
-                                                  (7, 25, 'T'),
-                                                  (4, 7, 'T'),
-                                                  ( 5, 10, 'W');
+INSERT INTO inventory (id, item_id, qty, type) VALUES (1, 1, 5, 'T'),
+                                                      (2, 2, 10, 'T'),
+                                                      (3, 3, 30, 'T'),
+                                                      (4, 4, 3, 'T'),
+                                                      (5, 5, 45, 'T'),
+                                                      (6, 6, 5, 'T'),
+                                                      (7, 7, 25, 'T'),
+                                                      (8, 4, 7, 'T'),
+                                                      (9, 5, 10, 'W'),
+                                                      -- the seeded orders take stock like createOrder does: one W per order,
+                                                      -- after a restock of item 1 whose two orders need more than its first T
+                                                      (10, 1, 7, 'T'),
+                                                      (11, 1, 2, 'W'),
+                                                      (12, 2, 3, 'W'),
+                                                      (13, 5, 4, 'W'),
+                                                      (14, 4, 1, 'W'),
+                                                      (15, 5, 2, 'W'),
+                                                      (16, 6, 3, 'W'),
+                                                      (17, 1, 5, 'W'),
+                                                      (18, 2, 4, 'W'),
+                                                      (19, 3, 2, 'W'),
+                                                      (20, 4, 3, 'W');
 
-INSERT INTO orders (order_no, item_id, qty, price) VALUES ( 'O1', 1, 2, 5),
-                                                          ( 'O2', 2, 3, 10),
-                                                          ( 'O3', 5, 4, 45),
-                                                          ( 'O4', 4, 1, 2),
-                                                          ( 'O5', 5, 2, 45),
-                                                          ( 'O6', 6, 3, 5),
-                                                          ( 'O7', 1, 5, 5),
-                                                          ( 'O8', 2, 4, 10),
-                                                          ( 'O9', 3, 2, 30),
-                                                          ( 'O10', 4, 3, 3);
+INSERT INTO orders (id, order_no, item_id, qty, price) VALUES (1, 'O1', 1, 2, 5),
+                                                              (2, 'O2', 2, 3, 10),
+                                                              (3, 'O3', 5, 4, 45),
+                                                              (4, 'O4', 4, 1, 2),
+                                                              (5, 'O5', 5, 2, 45),
+                                                              (6, 'O6', 6, 3, 5),
+                                                              (7, 'O7', 1, 5, 5),
+                                                              (8, 'O8', 2, 4, 10),
+                                                              (9, 'O9', 3, 2, 30),
+                                                              (10, 'O10', 4, 3, 3);
+
+-- ids come from pooled-lo sequences, continue after the seeded rows
+ALTER SEQUENCE item_seq RESTART WITH 8;
+ALTER SEQUENCE inventory_seq RESTART WITH 21;
+ALTER SEQUENCE orders_seq RESTART WITH 11;
+
+-- one nextval hands out a block of INCREMENT BY order numbers, OrderNoGenerator reads the increment from here
+CREATE SEQUENCE IF NOT EXISTS order_no_seq START WITH 11 INCREMENT BY 50;
+
+INSERT INTO stock_balance (item_id, qty) SELECT item_id, SUM(CASE WHEN type = 'T' THEN qty ELSE -qty END)
+                                         FROM inventory
+                                         GROUP BY item_id;
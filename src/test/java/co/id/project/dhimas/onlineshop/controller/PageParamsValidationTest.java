@@ -0,0 +1,79 @@
+package co.id.project.dhimas.onlineshop.controller;
+
+import co.id.project.dhimas.onlineshop.exception.config.CommonProperties;
+import co.id.project.dhimas.onlineshop.exception.config.ServiceProperties;
+import co.id.project.dhimas.onlineshop.service.InventoryService;
+import co.id.project.dhimas.onlineshop.service.ItemService;
+import co.id.project.dhimas.onlineshop.service.OrdersService;
+import co.id.project.dhimas.onlineshop.utils.PageLimits;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({ItemController.class, InventoryController.class, OrderController.class})
+// slice web tidak scan @ConfigurationProperties, GlobalExceptionHandler butuh mapping error dari yml
+@EnableConfigurationProperties({ServiceProperties.class, CommonProperties.class})
+class PageParamsValidationTest {
+
+    private static final List<String> LISTS = List.of("/api/items", "/api/inventory", "/api/order");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ItemService itemService;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private OrdersService ordersService;
+
+    @Test
+    @DisplayName("GET list - page, size, after and limit out of bounds are rejected before the service")
+    void outOfBounds_rejected() throws Exception {
+        var queries = List.of(
+                "after=0&limit=0",
+                "after=0&limit=-1",
+                "after=0&limit=" + (PageLimits.MAX_SIZE + 1),
+                "after=-1&limit=2",
+                "page=-1&size=2",
+                "page=0&size=0",
+                "page=0&size=" + (PageLimits.MAX_SIZE + 1));
+
+        for (var path : LISTS) {
+            for (var query : queries) {
+                mockMvc.perform(get(path + "?" + query))
+                        .andExpect(status().isConflict())
+                        .andExpect(jsonPath("$.errorDesc").value("INVALID_REQUEST_ARG"));
+            }
+        }
+
+        verifyNoInteractions(itemService, inventoryService, ordersService);
+    }
+
+    @Test
+    @DisplayName("GET list - the bounds themselves are accepted")
+    void bounds_accepted() throws Exception {
+        for (var path : LISTS) {
+            mockMvc.perform(get(path + "?after=0&limit=1")).andExpect(status().isOk());
+            mockMvc.perform(get(path + "?after=0&limit=" + PageLimits.MAX_SIZE)).andExpect(status().isOk());
+            mockMvc.perform(get(path + "?page=0&size=" + PageLimits.MAX_SIZE)).andExpect(status().isOk());
+        }
+
+        verify(itemService).getItemAfter(0, 1);
+        verify(inventoryService).getInventoryAfter(0, PageLimits.MAX_SIZE);
+        verify(ordersService).getOrder(0, PageLimits.MAX_SIZE, true);
+    }
+}
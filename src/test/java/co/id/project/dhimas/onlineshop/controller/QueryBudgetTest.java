@@ -0,0 +1,223 @@
+package co.id.project.dhimas.onlineshop.controller;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.InventoryService;
+import co.id.project.dhimas.onlineshop.service.OrdersService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static co.id.project.dhimas.onlineshop.controller.SqlStatementCounter.Kind.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budget per endpoint. A change that adds a query to an endpoint (an N+1, a find before a save,
+ * a lookup that should have been cached) fails here and the message lists every statement the request sent.
+ * Sequence calls are not budgeted, ids come in blocks so they only show up on some requests. Item rows are read
+ * through the second-level cache, an item saved or loaded once does not cost a SELECT again.
+ */
+// database sendiri, context MockMvc ini tidak berbagi H2 dengan test service yang pakai web NONE;
+// region L2 juga sendiri, CacheManager JCache dipakai bersama oleh semua context dengan uri yang sama
+// dan id item kedua database saling bertabrakan
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.jpa.properties.hibernate.cache.region_prefix=query-budget",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.class)
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Test
+    @DisplayName("GET /api/items - one page is one query, the total comes from the row counter")
+    void items_page() throws Exception {
+        // hitungan total di-load sekali, request berikutnya tanpa COUNT(*)
+        perform(get("/api/items?page=0&size=20"));
+
+        expect(get("/api/items?page=0&size=20"), new Budget(1, 0, 0, 0));
+        expect(get("/api/items?after=0&limit=20"), new Budget(1, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("GET /api/items/{id} - the stock balance only, the item comes from the L2 cache")
+    void items_get() throws Exception {
+        int itemId = newItemWithStock(10);
+
+        expect(get("/api/items/" + itemId), new Budget(1, 0, 0, 0));
+        // kedua kali dari ItemCatalog dan stock cache
+        expect(get("/api/items/" + itemId), new Budget(0, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("POST/PUT/DELETE /api/items - one write each, the row to change comes from the L2 cache")
+    void items_write() throws Exception {
+        expect(post("/api/items").content("""
+                {"data": {"name": "Budget", "price": 10}}
+                """), new Budget(0, 1, 0, 0));
+
+        int itemId = newItemWithStock(0);
+        expect(put("/api/items/" + itemId).content("""
+                {"data": {"name": "Budget", "price": 11}}
+                """), new Budget(0, 0, 1, 0));
+
+        // findById lalu deleteById dalam satu transaksi, row dari L2 dan tidak di-select lagi
+        expect(delete("/api/items/" + itemId), new Budget(0, 0, 0, 1));
+    }
+
+    @Test
+    @DisplayName("GET /api/inventory - page and single row")
+    void inventory_read() throws Exception {
+        int itemId = newItemWithStock(10);
+        int inventoryId = inventoryService.createInventory(new InventoryRequest(itemId, 1, "T")).id();
+        perform(get("/api/inventory?page=0&size=20"));
+
+        expect(get("/api/inventory?page=0&size=20"), new Budget(1, 0, 0, 0));
+        expect(get("/api/inventory?after=0&limit=20"), new Budget(1, 0, 0, 0));
+        expect(get("/api/inventory/" + inventoryId), new Budget(1, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("POST/PUT/DELETE /api/inventory - ledger row plus one balance update")
+    void inventory_write() throws Exception {
+        int itemId = newItemWithStock(10);
+
+        expect(post("/api/inventory").content("""
+                {"data": {"itemId": %d, "qty": 5, "type": "T"}}
+                """.formatted(itemId)), new Budget(0, 1, 1, 0));
+
+        int inventoryId = inventoryService.createInventory(new InventoryRequest(itemId, 3, "T")).id();
+        // row lama dibaca, lalu satu update saldo untuk item yang sama dan row ledger
+        expect(put("/api/inventory/" + inventoryId).content("""
+                {"data": {"itemId": %d, "qty": 4, "type": "T"}}
+                """.formatted(itemId)), new Budget(1, 0, 2, 0));
+
+        expect(delete("/api/inventory/" + inventoryId), new Budget(1, 0, 1, 1));
+    }
+
+    @Test
+    @DisplayName("GET /api/order - page and single order")
+    void order_read() throws Exception {
+        int itemId = newItemWithStock(10);
+        var orderNo = ordersService.createOrder(new OrdersRequest(itemId, 1)).orderNo();
+        perform(get("/api/order?page=0&size=20"));
+
+        expect(get("/api/order?page=0&size=20"), new Budget(1, 0, 0, 0));
+        expect(get("/api/order?after=0&limit=20"), new Budget(1, 0, 0, 0));
+        expect(get("/api/order/" + orderNo), new Budget(1, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("POST /api/order - conditional stock update, ledger row and order, no read of the balance")
+    void order_create() throws Exception {
+        int itemId = newItemWithStock(10);
+
+        expect(post("/api/order").content("""
+                {"data": {"itemId": %d, "qty": 1}}
+                """.formatted(itemId)), new Budget(0, 2, 1, 0));
+    }
+
+    @Test
+    @DisplayName("POST /api/order/batch - statements do not grow with the number of lines")
+    void order_batch() throws Exception {
+        // dua item, 2 baris lalu 10 baris: budget sama
+        var itemIds = new int[]{newItemWithStock(100), newItemWithStock(100)};
+
+        // pertama kali item belum ada di ItemCatalog
+        expect(post("/api/order/batch").content(batch(itemIds, 2)), new Budget(2, 2, 2, 0));
+        expect(post("/api/order/batch").content(batch(itemIds, 10)), new Budget(1, 2, 2, 0));
+    }
+
+    @Test
+    @DisplayName("PUT/DELETE /api/order/{orderNo} - one locked read, the stock moves by the difference only")
+    void order_write() throws Exception {
+        int itemId = newItemWithStock(10);
+        var orderNo = ordersService.createOrder(new OrdersRequest(itemId, 1)).orderNo();
+
+        expect(put("/api/order/" + orderNo).content("""
+                {"data": {"itemId": %d, "qty": 2}}
+                """.formatted(itemId)), new Budget(1, 1, 2, 0));
+
+        expect(delete("/api/order/" + orderNo), new Budget(1, 1, 1, 1));
+    }
+
+    @Test
+    @DisplayName("GET /api/stats - stats never touch the database")
+    void stats() throws Exception {
+        expect(get("/api/stats/cache"), new Budget(0, 0, 0, 0));
+        expect(get("/api/stats/coalescing"), new Budget(0, 0, 0, 0));
+        expect(get("/api/stats/admission"), new Budget(0, 0, 0, 0));
+        expect(get("/api/stats/hibernate"), new Budget(0, 0, 0, 0));
+    }
+
+    private void expect(MockHttpServletRequestBuilder request, Budget budget) throws Exception {
+        sqlStatementCounter.reset();
+        perform(request);
+
+        var byKind = sqlStatementCounter.byKind();
+        var sent = String.join("\n  ", sqlStatementCounter.statements());
+        var sample = request.buildRequest(new MockServletContext());
+        var description = "%s %s sent %s:%n  %s".formatted(sample.getMethod(), sample.getRequestURI(), byKind, sent);
+
+        assertThat(byKind.getOrDefault(SELECT, 0)).as(description).isLessThanOrEqualTo(budget.selects());
+        assertThat(byKind.getOrDefault(INSERT, 0)).as(description).isLessThanOrEqualTo(budget.inserts());
+        assertThat(byKind.getOrDefault(UPDATE, 0)).as(description).isLessThanOrEqualTo(budget.updates());
+        assertThat(byKind.getOrDefault(DELETE, 0)).as(description).isLessThanOrEqualTo(budget.deletes());
+        assertThat(byKind.getOrDefault(OTHER, 0)).as(description).isZero();
+    }
+
+    private void perform(MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private int newItemWithStock(int stock) {
+        int itemId = itemRepository.save(Item.builder()
+                .name("Budget")
+                .price(3)
+                .build()).getId();
+        if (stock > 0) {
+            inventoryService.createInventory(new InventoryRequest(itemId, stock, "T"));
+        }
+        return itemId;
+    }
+
+    private static String batch(int[] itemIds, int lines) {
+        return IntStream.range(0, lines)
+                .mapToObj(i -> "{\"itemId\": %d, \"qty\": 1}".formatted(itemIds[i % itemIds.length]))
+                .collect(Collectors.joining(", ", "{\"data\": {\"orders\": [", "]}}"));
+    }
+
+    // SELECT, INSERT, UPDATE dan DELETE paling banyak per request
+    private record Budget(int selects, int inserts, int updates, int deletes) {
+    }
+}
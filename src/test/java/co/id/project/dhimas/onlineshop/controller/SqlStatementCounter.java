@@ -0,0 +1,134 @@
+package co.id.project.dhimas.onlineshop.controller;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps the application DataSource and records every statement sent to the database, one per execute call
+ * (a JDBC batch counts once, it is one round trip). Counts are global and not per thread, statements run
+ * by the stock batch loader or the order lanes on behalf of a request are counted too.
+ */
+class SqlStatementCounter implements BeanPostProcessor {
+
+    enum Kind { SELECT, INSERT, UPDATE, DELETE, SEQUENCE, OTHER }
+
+    private static final Set<String> EXECUTE = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    public synchronized void reset() {
+        statements.clear();
+    }
+
+    public synchronized List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public synchronized Map<Kind, Integer> byKind() {
+        var counts = new EnumMap<Kind, Integer>(Kind.class);
+        statements.forEach(sql -> counts.merge(kindOf(sql), 1, Integer::sum));
+        return counts;
+    }
+
+    private synchronized void record(String sql) {
+        statements.add(sql == null ? "<unknown>" : sql.strip().replaceAll("\\s+", " "));
+    }
+
+    static Kind kindOf(String sql) {
+        var trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        // the INCREMENT BY lookup of OrderNoGenerator goes with its first nextval, once per JVM
+        if (trimmed.contains("next value for") || trimmed.contains("nextval(")
+                || trimmed.contains("information_schema.sequences")) {
+            return Kind.SEQUENCE;
+        }
+        // CTEs and VALUES read rows too
+        if (trimmed.startsWith("select") || trimmed.startsWith("with") || trimmed.startsWith("values")) {
+            return Kind.SELECT;
+        }
+        if (trimmed.startsWith("insert") || trimmed.startsWith("merge")) {
+            return Kind.INSERT;
+        }
+        if (trimmed.startsWith("update")) {
+            return Kind.UPDATE;
+        }
+        if (trimmed.startsWith("delete")) {
+            return Kind.DELETE;
+        }
+        return Kind.OTHER;
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        private CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(super.getConnection(username, password));
+        }
+
+        private Connection connection(Connection target) {
+            return proxy(Connection.class, target, null, (method, args, result) -> switch (method) {
+                case "prepareStatement" -> proxy(PreparedStatement.class, result, (String) args[0], NO_WRAP);
+                case "prepareCall" -> proxy(CallableStatement.class, result, (String) args[0], NO_WRAP);
+                case "createStatement" -> proxy(Statement.class, result, null, NO_WRAP);
+                default -> result;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<T> type, Object target, String preparedSql, Wrap wrap) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (EXECUTE.contains(method.getName())) {
+                    // plain statements carry the SQL as the first argument, prepared ones had it at prepare time
+                    record(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+                }
+                try {
+                    return wrap.apply(method.getName(), args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    // wraps what a JDBC call returned, so statements created by a connection are counted too
+    @FunctionalInterface
+    private interface Wrap {
+        Object apply(String method, Object[] args, Object result);
+    }
+
+    private static final Wrap NO_WRAP = (method, args, result) -> result;
+}
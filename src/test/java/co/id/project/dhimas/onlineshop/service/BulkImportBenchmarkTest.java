@@ -0,0 +1,100 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.response.ImportResponse;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BulkImportBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int ITEMS = 1_000;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("importItems - one million CSV rows")
+    void importItems_oneMillionRows() throws IOException {
+        var file = generate("items.csv", "name,price", i -> "Sku " + i + "," + (i % 500));
+
+        var response = timed("importItems", file, in -> itemService.importItems(ExportFormat.CSV, in));
+
+        assertThat(response.imported()).isEqualTo(ROWS);
+        assertThat(response.rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("importInventory - one million NDJSON ledger rows, balances kept in step")
+    void importInventory_oneMillionRows() throws IOException {
+        // seeded items 1..7 only, top ups spread over them
+        var file = generate("inventory.ndjson", null,
+                i -> "{\"itemId\":" + (i % 7 + 1) + ",\"qty\":1,\"type\":\"T\"}");
+
+        int before = stockService.remainingStock(1);
+
+        var response = timed("importInventory", file, in -> inventoryService.importInventory(ExportFormat.NDJSON, in));
+
+        assertThat(response.imported()).isEqualTo(ROWS);
+        // balance harus sama dengan hasil hitung ulang dari ledger
+        assertThat(stockService.remainingStock(1)).isEqualTo(inventoryRepository.getStock(1));
+        assertThat(stockService.remainingStock(1) - before).isEqualTo((ROWS + 6) / 7);
+    }
+
+    private ImportResponse timed(String name, Path file, Function<InputStream, ImportResponse> action) throws IOException {
+        long begin = System.nanoTime();
+        ImportResponse response;
+        try (var in = Files.newInputStream(file)) {
+            response = action.apply(in);
+        }
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        System.out.printf("%s: %d rows in %.2f s (%.0f rows/s)%n",
+                name, response.total(), seconds, response.total() / seconds);
+        return response;
+    }
+
+    private Path generate(String name, String header, Function<Integer, String> line) throws IOException {
+        var file = tempDir.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            if (header != null) {
+                writer.write(header);
+                writer.newLine();
+            }
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(line.apply(i));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+}
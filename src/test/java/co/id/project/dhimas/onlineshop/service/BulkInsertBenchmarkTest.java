@@ -0,0 +1,117 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersBatchRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BulkInsertBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ORDER_BATCH = 500;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("saveAll - inserts per second with and without JDBC batching")
+    void saveAll_batchedVsRowByRow() {
+        long ledgerRows = inventoryRepository.count();
+
+        // warm up hibernate and the JIT before measuring
+        insertLedger(1_000, 50);
+
+        // batch size 1 is what IDENTITY ids forced on every save before
+        double rowByRow = insertLedger(ROWS, 1);
+        double batched = insertLedger(ROWS, 50);
+
+        System.out.printf("inventory saveAll: row-by-row %.0f rows/s, batched %.0f rows/s (x%.1f)%n",
+                rowByRow, batched, batched / rowByRow);
+
+        // every measured insert was rolled back
+        assertThat(inventoryRepository.count()).isEqualTo(ledgerRows);
+    }
+
+    @Test
+    @DisplayName("createOrders - orders per second through the bulk endpoint path")
+    void createOrders_throughput() {
+        var item = itemRepository.save(Item.builder()
+                .name("Bulk")
+                .price(3)
+                .build());
+        inventoryService.createInventory(new InventoryRequest(item.getId(), ROWS, "T"));
+
+        var lines = IntStream.range(0, ORDER_BATCH)
+                .mapToObj(i -> new OrdersBatchRequest.Order(item.getId(), 1))
+                .toList();
+
+        long begin = System.nanoTime();
+        int created = 0;
+        for (int i = 0; i < ROWS / ORDER_BATCH; i++) {
+            created += ordersService.createOrders(new OrdersBatchRequest(lines)).created();
+        }
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        assertThat(created).isEqualTo(ROWS);
+
+        System.out.printf("createOrders: %d orders in %.2f s (%.0f orders/s)%n",
+                created, seconds, created / seconds);
+    }
+
+    private double insertLedger(int rows, int jdbcBatchSize) {
+        var ledger = new ArrayList<Inventory>(rows);
+        for (int i = 0; i < rows; i++) {
+            ledger.add(Inventory.builder()
+                    .itemId(1)
+                    .qty(1)
+                    .type(InventoryType.T)
+                    .build());
+        }
+
+        long begin = System.nanoTime();
+        long elapsed = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            inventoryRepository.saveAll(ledger);
+            entityManager.flush();
+
+            // ledger rows without stock_balance would break the balance for the other tests, so nothing is kept
+            status.setRollbackOnly();
+            return System.nanoTime() - begin;
+        });
+
+        return rows / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -7,6 +7,9 @@ import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
 import co.id.project.dhimas.onlineshop.model.response.InventoryListResponse;
 import co.id.project.dhimas.onlineshop.model.response.InventoryResponse;
 import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
 import co.id.project.dhimas.onlineshop.utils.ErrorType;
 import co.id.project.dhimas.onlineshop.utils.InventoryType;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +34,15 @@ class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Mock
+    private ShopMetrics shopMetrics;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -55,20 +67,22 @@ class InventoryServiceTest {
     }
 
     @Test
-    @DisplayName("getInventory(page,size) - returns page of inventories")
+    @DisplayName("getInventory(page,size) - returns page of inventories with cached totals")
     void getInventory_list_success() {
         // given
         var pageable = PageRequest.of(0, 2);
-        var pageData = new PageImpl<>(
+        var sliceData = new SliceImpl<>(
                 List.of(inv1, inv2),
                 pageable,
-                2
+                false
         );
 
-        when(inventoryRepository.findAll(pageable)).thenReturn(pageData);
+        when(inventoryRepository.findAllBy(pageable)).thenReturn(sliceData);
+        // total dari counter, bukan COUNT(*)
+        when(rowCountService.count(Inventory.class)).thenReturn(2L);
 
         // when
-        InventoryListResponse response = inventoryService.getInventory(0, 2);
+        InventoryListResponse response = inventoryService.getInventory(0, 2, true);
 
         // then
         assertThat(response).isNotNull();
@@ -76,6 +90,7 @@ class InventoryServiceTest {
         assertThat(response.size()).isEqualTo(2);
         assertThat(response.totalItems()).isEqualTo(2);
         assertThat(response.totalPages()).isEqualTo(1);
+        assertThat(response.hasNext()).isFalse();
 
         assertThat(response.inventories()).hasSize(2);
 
@@ -91,8 +106,68 @@ class InventoryServiceTest {
         assertThat(second.qty()).isEqualTo(7);
         assertThat(second.type()).isEqualTo("W");
 
-        verify(inventoryRepository).findAll(pageable);
-        verifyNoMoreInteractions(inventoryRepository);
+        verify(inventoryRepository).findAllBy(pageable);
+        verify(rowCountService).count(Inventory.class);
+        verifyNoMoreInteractions(inventoryRepository, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getInventory(page,size) - withTotal=false skips totals and only reports hasNext")
+    void getInventory_list_withoutTotal() {
+        // given
+        var pageable = PageRequest.of(0, 1);
+        when(inventoryRepository.findAllBy(pageable))
+                .thenReturn(new SliceImpl<>(List.of(inv1), pageable, true));
+
+        // when
+        InventoryListResponse response = inventoryService.getInventory(0, 1, false);
+
+        // then
+        assertThat(response.inventories()).hasSize(1);
+        assertThat(response.hasNext()).isTrue();
+        assertThat(response.totalItems()).isNull();
+        assertThat(response.totalPages()).isNull();
+
+        verify(inventoryRepository).findAllBy(pageable);
+        verifyNoMoreInteractions(inventoryRepository, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getInventoryAfter - returns keyset page with next cursor")
+    void getInventoryAfter_hasNext() {
+        // given: limit 1, repository mengembalikan 2 row -> masih ada halaman berikutnya
+        when(inventoryRepository.findByIdGreaterThanOrderById(9, Limit.of(2)))
+                .thenReturn(List.of(inv1, inv2));
+
+        // when
+        InventoryListResponse response = inventoryService.getInventoryAfter(9, 1);
+
+        // then
+        assertThat(response.inventories()).extracting(InventoryListResponse.Inventory::id).containsExactly(10);
+        assertThat(response.size()).isEqualTo(1);
+        assertThat(response.nextCursor()).isEqualTo(10);
+        assertThat(response.totalItems()).isNull();
+
+        verify(inventoryRepository).findByIdGreaterThanOrderById(9, Limit.of(2));
+        verifyNoMoreInteractions(inventoryRepository, stockService);
+    }
+
+    @Test
+    @DisplayName("getInventoryAfter - last keyset page has no next cursor")
+    void getInventoryAfter_lastPage() {
+        // given
+        when(inventoryRepository.findByIdGreaterThanOrderById(9, Limit.of(3)))
+                .thenReturn(List.of(inv1, inv2));
+
+        // when
+        InventoryListResponse response = inventoryService.getInventoryAfter(9, 2);
+
+        // then
+        assertThat(response.inventories()).hasSize(2);
+        assertThat(response.nextCursor()).isNull();
+
+        verify(inventoryRepository).findByIdGreaterThanOrderById(9, Limit.of(3));
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -166,7 +241,10 @@ class InventoryServiceTest {
         assertThat(response.qty()).isEqualTo(20);
         assertThat(response.type()).isEqualTo("T");
 
-        verifyNoMoreInteractions(inventoryRepository);
+        // top up menambah balance stok item
+        verify(stockService).adjustStock(7, 20);
+        verify(rowCountService).add(Inventory.class, 1);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -181,8 +259,13 @@ class InventoryServiceTest {
         );
 
         // kalau type T, logic nggak cek stok sama sekali
-        // tapi service tetap call getStock(), jadi kita boleh stub seadanya
-        when(inventoryRepository.getStock(99)).thenReturn(999);
+        // row lama: withdrawal 4 untuk item 99
+        when(inventoryRepository.findById(50)).thenReturn(Optional.of(Inventory.builder()
+                .id(50)
+                .itemId(99)
+                .qty(4)
+                .type(InventoryType.W)
+                .build()));
 
         when(inventoryRepository.save(any(Inventory.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
@@ -192,7 +275,7 @@ class InventoryServiceTest {
 
         // then
         ArgumentCaptor<Inventory> captor = ArgumentCaptor.forClass(Inventory.class);
-        verify(inventoryRepository).getStock(99);
+        verify(inventoryRepository).findById(50);
         verify(inventoryRepository).save(captor.capture());
 
         Inventory savedInv = captor.getValue();
@@ -206,7 +289,9 @@ class InventoryServiceTest {
         assertThat(response.qty()).isEqualTo(10);
         assertThat(response.type()).isEqualTo("T");
 
-        verifyNoMoreInteractions(inventoryRepository);
+        // efek row lama dibalik (+4) dan row baru (+10), item sama jadi satu update
+        verify(stockService).adjustStock(99, 14);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -220,8 +305,16 @@ class InventoryServiceTest {
                 "w"     // type lowercase, will toUpperCase() in service
         );
 
-        // stok cukup (5)
-        when(inventoryRepository.getStock(5)).thenReturn(5);
+        // stok cukup, update bersyarat berhasil
+        when(stockService.deductStock(5, 5)).thenReturn(true);
+
+        // row lama: top up 2 untuk item 5
+        when(inventoryRepository.findById(77)).thenReturn(Optional.of(Inventory.builder()
+                .id(77)
+                .itemId(5)
+                .qty(2)
+                .type(InventoryType.T)
+                .build()));
 
         when(inventoryRepository.save(any(Inventory.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
@@ -231,7 +324,7 @@ class InventoryServiceTest {
 
         // then
         ArgumentCaptor<Inventory> captor = ArgumentCaptor.forClass(Inventory.class);
-        verify(inventoryRepository).getStock(5);
+        verify(inventoryRepository).findById(77);
         verify(inventoryRepository).save(captor.capture());
 
         Inventory savedInv = captor.getValue();
@@ -245,7 +338,35 @@ class InventoryServiceTest {
         assertThat(response.qty()).isEqualTo(3);
         assertThat(response.type()).isEqualTo("W");
 
-        verifyNoMoreInteractions(inventoryRepository);
+        // -2 (balik top up lama) dan -3 (withdrawal baru), dicek dan dikurangi dalam satu update
+        verify(stockService).deductStock(5, 5);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
+    }
+
+    @Test
+    @DisplayName("updateInventory - moving the row to another item adjusts both balances")
+    void updateInventory_success_otherItem() {
+        // given: row lama top up 6 untuk item 1, dipindah ke item 2
+        when(inventoryRepository.findById(60)).thenReturn(Optional.of(Inventory.builder()
+                .id(60)
+                .itemId(1)
+                .qty(6)
+                .type(InventoryType.T)
+                .build()));
+        when(inventoryRepository.save(any(Inventory.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        // when
+        InventoryResponse response = inventoryService.updateInventory(60, new InventoryRequest(2, 6, "T"));
+
+        // then
+        assertThat(response.itemId()).isEqualTo(2);
+
+        verify(inventoryRepository).findById(60);
+        verify(inventoryRepository).save(any(Inventory.class));
+        verify(stockService).adjustStock(1, -6);
+        verify(stockService).adjustStock(2, 6);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -258,7 +379,14 @@ class InventoryServiceTest {
                 "W"     // withdraw
         );
 
-        when(inventoryRepository.getStock(9)).thenReturn(0);
+        // row lama: top up 2, saldo tidak punya stok bebas
+        when(inventoryRepository.findById(99)).thenReturn(Optional.of(Inventory.builder()
+                .id(99)
+                .itemId(9)
+                .qty(2)
+                .type(InventoryType.T)
+                .build()));
+        when(stockService.deductStock(9, 4)).thenReturn(false);
 
         // when / then
         assertThatThrownBy(() -> inventoryService.updateInventory(99, request))
@@ -268,8 +396,10 @@ class InventoryServiceTest {
                     assertThat(gee.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
                 });
 
-        verify(inventoryRepository).getStock(9);
-        verifyNoMoreInteractions(inventoryRepository);
+        verify(inventoryRepository).findById(99);
+        verify(stockService).deductStock(9, 4);
+        verify(shopMetrics).stockNotEnough(9, "inventory");
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -282,8 +412,14 @@ class InventoryServiceTest {
                 "W"     // withdraw
         );
 
-        // stok cuma 5 < qty 10
-        when(inventoryRepository.getStock(9)).thenReturn(5);
+        // row lama withdrawal 4 di item lain, item 9 tidak punya 10 yang tidak ditahan reservasi
+        when(inventoryRepository.findById(999)).thenReturn(Optional.of(Inventory.builder()
+                .id(999)
+                .itemId(8)
+                .qty(4)
+                .type(InventoryType.W)
+                .build()));
+        when(stockService.deductStock(9, 10)).thenReturn(false);
 
         // when / then
         assertThatThrownBy(() -> inventoryService.updateInventory(999, request))
@@ -293,8 +429,12 @@ class InventoryServiceTest {
                     assertThat(gee.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
                 });
 
-        verify(inventoryRepository).getStock(9);
-        verifyNoMoreInteractions(inventoryRepository);
+        // row ledger tidak disimpan, rollback membatalkan saldo item 8
+        verify(inventoryRepository).findById(999);
+        verify(stockService).adjustStock(8, 4);
+        verify(stockService).deductStock(9, 10);
+        verify(shopMetrics).stockNotEnough(9, "inventory");
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     // -----------------------------------------------------------------------
@@ -310,7 +450,10 @@ class InventoryServiceTest {
 
         verify(inventoryRepository).findById(10);
         verify(inventoryRepository).deleteById(10);
-        verifyNoMoreInteractions(inventoryRepository);
+        // top up 5 dihapus -> balance dikurangi 5
+        verify(stockService).adjustStock(1, -5);
+        verify(rowCountService).add(Inventory.class, -1);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 
     @Test
@@ -322,6 +465,31 @@ class InventoryServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class);
 
         verify(inventoryRepository).findById(404);
-        verifyNoMoreInteractions(inventoryRepository);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
+    }
+
+    @Test
+    @DisplayName("updateInventory - throws ResourceNotFoundException when old row not exists")
+    void updateInventory_notFound() {
+        // given
+        InventoryRequest request = new InventoryRequest(1, 2, "T");
+
+        when(inventoryRepository.findById(404)).thenReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> inventoryService.updateInventory(404, request))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(inventoryRepository).findById(404);
+        verifyNoMoreInteractions(inventoryRepository, stockService);
+    }
+
+    @Test
+    @DisplayName("rebuildStock - delegates to StockService")
+    void rebuildStock_success() {
+        inventoryService.rebuildStock();
+
+        verify(stockService).rebuildStock();
+        verifyNoMoreInteractions(inventoryRepository, stockService);
     }
 }
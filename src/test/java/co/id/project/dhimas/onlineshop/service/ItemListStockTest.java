@@ -0,0 +1,66 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ItemListStockTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("getItemAfter / export - same stock as getItem with holds and leases on the item")
+    void listStock_matchesSingleItem() {
+        // given: stok 10, 2 ditahan reservasi, 4 di-lease node lain dan belum terjual
+        int itemId = itemRepository.save(Item.builder()
+                .name("Leased")
+                .price(6)
+                .build()).getId();
+        inventoryService.createInventory(new InventoryRequest(itemId, 10, "T"));
+
+        var expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        assertThat(stockService.holdStock(UUID.randomUUID().toString(), itemId, 2, expiresAt)).isTrue();
+        assertThat(stockService.leaseStock(itemId, 4, "other-node", expiresAt)).isEqualTo(4);
+
+        // when
+        int single = itemService.getItem(itemId).remainingStock();
+        var page = itemService.getItemAfter(itemId - 1, 1).items();
+        var exported = transactionTemplate.execute(status -> {
+            try (var items = itemRepository.streamAllWithStock()) {
+                return items.filter(item -> item.id() == itemId).findFirst().orElseThrow();
+            }
+        });
+
+        // then: stok lease masih bisa dijual, hanya hold yang tidak dihitung
+        assertThat(single).isEqualTo(8);
+        assertThat(page).extracting(ItemListResponse.Item::remainingStock).containsExactly(8);
+        assertThat(exported.remainingStock()).isEqualTo(8);
+    }
+}
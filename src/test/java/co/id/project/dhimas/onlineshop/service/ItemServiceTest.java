@@ -6,6 +6,8 @@ import co.id.project.dhimas.onlineshop.model.request.ItemRequest;
 import co.id.project.dhimas.onlineshop.model.response.ItemListResponse;
 import co.id.project.dhimas.onlineshop.model.response.ItemResponse;
 import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
 import co.id.project.dhimas.onlineshop.service.function.StockService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,9 +17,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +37,12 @@ class ItemServiceTest {
     @Mock
     private StockService stockService;
 
+    @Mock
+    private RowCountService rowCountService;
+
+    @Mock
+    private ItemCatalog itemCatalog;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -60,25 +69,30 @@ class ItemServiceTest {
     void getItem_list_success() {
         // given
         PageRequest pageable = PageRequest.of(0, 2);
-        Page<Item> pageData = new PageImpl<>(
-                List.of(item1, item2),
+        Slice<ItemListResponse.Item> sliceData = new SliceImpl<>(
+                List.of(
+                        new ItemListResponse.Item(1, "Pen", 5, 100),
+                        new ItemListResponse.Item(2, "Book", 10, 50)
+                ),
                 pageable,
-                2
+                true
         );
 
-        when(itemRepository.findAll(pageable)).thenReturn(pageData);
-        when(stockService.remainingStock(1)).thenReturn(100);
-        when(stockService.remainingStock(2)).thenReturn(50);
+        // stok ikut di-join di query yang sama, tanpa call StockService per item
+        when(itemRepository.findAllWithStock(pageable)).thenReturn(sliceData);
+        // total dari counter, bukan COUNT(*)
+        when(rowCountService.count(Item.class)).thenReturn(3L);
 
         // when
-        ItemListResponse result = itemService.getItem(0, 2);
+        ItemListResponse result = itemService.getItem(0, 2, true);
 
         // then
         assertThat(result).isNotNull();
         assertThat(result.page()).isEqualTo(0);
         assertThat(result.size()).isEqualTo(2);
-        assertThat(result.totalItems()).isEqualTo(2);
-        assertThat(result.totalPages()).isEqualTo(1);
+        assertThat(result.totalItems()).isEqualTo(3);
+        assertThat(result.totalPages()).isEqualTo(2);
+        assertThat(result.hasNext()).isTrue();
 
         assertThat(result.items()).hasSize(2);
 
@@ -94,17 +108,85 @@ class ItemServiceTest {
         assertThat(second.price()).isEqualTo(10);
         assertThat(second.remainingStock()).isEqualTo(50);
 
-        verify(itemRepository).findAll(pageable);
-        verify(stockService).remainingStock(1);
-        verify(stockService).remainingStock(2);
+        verify(itemRepository).findAllWithStock(pageable);
+        verify(rowCountService).count(Item.class);
+        verifyNoMoreInteractions(itemRepository, stockService, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getItem(page,size) - withTotal=false skips totals and only reports hasNext")
+    void getItem_list_withoutTotal() {
+        // given
+        PageRequest pageable = PageRequest.of(1, 2);
+        when(itemRepository.findAllWithStock(pageable)).thenReturn(new SliceImpl<>(
+                List.of(new ItemListResponse.Item(3, "Bag", 30, 0)),
+                pageable,
+                false
+        ));
+
+        // when
+        ItemListResponse result = itemService.getItem(1, 2, false);
+
+        // then
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.page()).isEqualTo(1);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.totalItems()).isNull();
+        assertThat(result.totalPages()).isNull();
+
+        verify(itemRepository).findAllWithStock(pageable);
+        verifyNoMoreInteractions(itemRepository, stockService, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getItemAfter - should return keyset page with next cursor and no totals")
+    void getItemAfter_hasNext() {
+        // given: limit 2, repository diminta 3 row untuk tahu masih ada halaman berikutnya
+        when(itemRepository.findAllWithStockAfter(0, Limit.of(3))).thenReturn(List.of(
+                new ItemListResponse.Item(1, "Pen", 5, 100),
+                new ItemListResponse.Item(2, "Book", 10, 50),
+                new ItemListResponse.Item(3, "Bag", 30, 0)
+        ));
+
+        // when
+        ItemListResponse result = itemService.getItemAfter(0, 2);
+
+        // then
+        assertThat(result.items()).extracting(ItemListResponse.Item::id).containsExactly(1, 2);
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.nextCursor()).isEqualTo(2);
+        assertThat(result.page()).isNull();
+        assertThat(result.totalItems()).isNull();
+        assertThat(result.totalPages()).isNull();
+
+        verify(itemRepository).findAllWithStockAfter(0, Limit.of(3));
+        verifyNoMoreInteractions(itemRepository, stockService);
+    }
+
+    @Test
+    @DisplayName("getItemAfter - last keyset page has no next cursor")
+    void getItemAfter_lastPage() {
+        // given
+        when(itemRepository.findAllWithStockAfter(2, Limit.of(3))).thenReturn(List.of(
+                new ItemListResponse.Item(3, "Bag", 30, 0)
+        ));
+
+        // when
+        ItemListResponse result = itemService.getItemAfter(2, 2);
+
+        // then
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.nextCursor()).isNull();
+
+        verify(itemRepository).findAllWithStockAfter(2, Limit.of(3));
         verifyNoMoreInteractions(itemRepository, stockService);
     }
 
     @Test
     @DisplayName("getItem(id) - should return single item response with remaining stock")
     void getItem_single_success() {
-        // given
-        when(itemRepository.findById(1)).thenReturn(Optional.of(item1));
+        // given: item dari catalog cache, bukan itemRepository
+        when(itemCatalog.find(1)).thenReturn(Optional.of(new ItemCatalog.Snapshot(1, "Pen", 5)));
         when(stockService.remainingStock(1)).thenReturn(77);
 
         // when
@@ -117,23 +199,23 @@ class ItemServiceTest {
         assertThat(result.price()).isEqualTo(5);
         assertThat(result.remainingStock()).isEqualTo(77);
 
-        verify(itemRepository).findById(1);
+        verify(itemCatalog).find(1);
         verify(stockService).remainingStock(1);
-        verifyNoMoreInteractions(itemRepository, stockService);
+        verifyNoMoreInteractions(itemRepository, stockService, itemCatalog);
     }
 
     @Test
     @DisplayName("getItem(id) - should throw ResourceNotFoundException when item missing")
     void getItem_single_notFound() {
         // given
-        when(itemRepository.findById(999)).thenReturn(Optional.empty());
+        when(itemCatalog.find(999)).thenReturn(Optional.empty());
 
         // when / then
         assertThatThrownBy(() -> itemService.getItem(999))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(itemRepository).findById(999);
-        verifyNoMoreInteractions(itemRepository, stockService);
+        verify(itemCatalog).find(999);
+        verifyNoMoreInteractions(itemRepository, stockService, itemCatalog);
     }
 
     @Test
@@ -168,6 +250,10 @@ class ItemServiceTest {
         assertThat(response.name()).isEqualTo("Marker");
         assertThat(response.price()).isEqualTo(15);
 
+        verify(rowCountService).add(Item.class, 1);
+        // id baru bisa saja sudah pernah dicari dan tercatat "tidak ada" di cache
+        verify(itemCatalog).evict(List.of(10));
+
         verifyNoMoreInteractions(itemRepository, stockService);
     }
 
@@ -196,10 +282,14 @@ class ItemServiceTest {
         verify(itemRepository).save(captor.capture());
         Item savedItem = captor.getValue();
 
+        // row yang di-load yang diubah, supaya version check jalan
+        assertThat(savedItem).isSameAs(item1);
         assertThat(savedItem.getId()).isEqualTo(id);
         assertThat(savedItem.getName()).isEqualTo("Updated Pen");
         assertThat(savedItem.getPrice()).isEqualTo(99);
 
+        verify(itemCatalog).evict(List.of(id));
+
         // verify response matches saved data
         assertThat(result.id()).isEqualTo(id);
         assertThat(result.name()).isEqualTo("Updated Pen");
@@ -222,7 +312,7 @@ class ItemServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class);
 
         verify(itemRepository).findById(id);
-        verifyNoMoreInteractions(itemRepository, stockService);
+        verifyNoMoreInteractions(itemRepository, stockService, itemCatalog);
     }
 
     @Test
@@ -237,6 +327,8 @@ class ItemServiceTest {
         // then
         verify(itemRepository).findById(1);
         verify(itemRepository).deleteById(1);
+        verify(rowCountService).add(Item.class, -1);
+        verify(itemCatalog).evict(List.of(1));
         verifyNoMoreInteractions(itemRepository, stockService);
     }
 
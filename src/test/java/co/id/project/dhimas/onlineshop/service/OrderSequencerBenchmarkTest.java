@@ -0,0 +1,165 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Same skewed workload through createOrder with and without the per-item sequencer.
+ * Each mode gets its own application context and its own in-memory database.
+ */
+@Tag("benchmark")
+class OrderSequencerBenchmarkTest {
+
+    private static final int ITEMS = 100;
+    private static final int STOCK = 2_000;
+    private static final int ORDERS = 20_000;
+    private static final int THREADS = 64;
+    // s = 1.1: item pertama dapat kira-kira 20% dari semua order
+    private static final double ZIPF_S = 1.1;
+    private static final long SEED = 42;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+            "spring.datasource.url=jdbc:h2:mem:sequencer-off;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+            "origin.order.sequencer.enabled=false"
+    })
+    class ConditionalUpdate extends Workload {
+
+        @Test
+        @DisplayName("createOrder - zipf workload, conditional update per order")
+        void createOrder_zipf() throws Exception {
+            run("conditional update");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+            "spring.datasource.url=jdbc:h2:mem:sequencer-on;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+            "origin.order.sequencer.enabled=true"
+    })
+    class Sequencer extends Workload {
+
+        @Test
+        @DisplayName("createOrder - zipf workload, per-item sequencer lanes")
+        void createOrder_zipf() throws Exception {
+            run("sequencer");
+        }
+    }
+
+    abstract static class Workload {
+
+        @Autowired
+        private OrdersService ordersService;
+
+        @Autowired
+        private InventoryService inventoryService;
+
+        @Autowired
+        private StockService stockService;
+
+        @Autowired
+        private ItemRepository itemRepository;
+
+        @Autowired
+        private InventoryRepository inventoryRepository;
+
+        void run(String mode) throws Exception {
+            var itemIds = new int[ITEMS];
+            for (int i = 0; i < ITEMS; i++) {
+                var item = itemRepository.save(Item.builder()
+                        .name("Zipf " + i)
+                        .price(1 + i)
+                        .build());
+                itemIds[i] = item.getId();
+                inventoryService.createInventory(new InventoryRequest(item.getId(), STOCK, "T"));
+            }
+
+            var ranks = zipfRanks(ORDERS, ITEMS, ZIPF_S, SEED);
+
+            var created = new AtomicInteger();
+            var rejected = new AtomicInteger();
+            var start = new CountDownLatch(1);
+            var executor = Executors.newFixedThreadPool(THREADS);
+            var futures = new ArrayList<Future<?>>();
+            var latencies = new long[ORDERS];
+
+            for (int i = 0; i < ORDERS; i++) {
+                int n = i;
+                int itemId = itemIds[ranks[i]];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    try {
+                        ordersService.createOrder(new OrdersRequest(itemId, 1));
+                        created.incrementAndGet();
+                    } catch (GeneralErrorException e) {
+                        rejected.incrementAndGet();
+                    }
+                    latencies[n] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (var future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+            executor.shutdown();
+
+            // hot items run out, every order is either created or rejected and nothing is oversold
+            assertThat(created.get() + rejected.get()).isEqualTo(ORDERS);
+            int remaining = 0;
+            for (int itemId : itemIds) {
+                int stock = stockService.currentStock(itemId);
+                assertThat(stock).isNotNegative();
+                assertThat(inventoryRepository.getStock(itemId)).isEqualTo(stock);
+                remaining += stock;
+            }
+            assertThat(remaining).isEqualTo(ITEMS * STOCK - created.get());
+
+            Arrays.sort(latencies);
+            System.out.printf("createOrder %s: %d orders (%d created, %d rejected) in %.2f s, %.0f orders/s, p50 %.2f ms, p99 %.2f ms%n",
+                    mode, ORDERS, created.get(), rejected.get(), seconds, ORDERS / seconds,
+                    latencies[ORDERS / 2] / 1e6, latencies[ORDERS * 99 / 100] / 1e6);
+        }
+    }
+
+    // rank 0 is the most popular item, P(rank k) ~ 1 / (k + 1)^s
+    static int[] zipfRanks(int count, int items, double s, long seed) {
+        var cumulative = new double[items];
+        double sum = 0;
+        for (int k = 0; k < items; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cumulative[k] = sum;
+        }
+
+        var random = new Random(seed);
+        var ranks = new int[count];
+        for (int i = 0; i < count; i++) {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ranks[i] = found >= 0 ? found : -found - 1;
+        }
+        return ranks;
+    }
+}
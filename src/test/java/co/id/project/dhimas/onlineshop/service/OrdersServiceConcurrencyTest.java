@@ -0,0 +1,164 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class OrdersServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS = 500;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Test
+    @DisplayName("createOrder - concurrent orders for one item never oversell")
+    void createOrder_concurrent_noOversell() throws Exception {
+        // given: item baru dengan stok 100, 500 order qty 1 dari 32 thread
+        var item = itemRepository.save(Item.builder()
+                .name("Flash Sale")
+                .price(7)
+                .build());
+        int itemId = item.getId();
+
+        inventoryService.createInventory(new InventoryRequest(itemId, STOCK, "T"));
+
+        var success = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int i = 0; i < ORDERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    ordersService.createOrder(new OrdersRequest(itemId, 1));
+                    success.incrementAndGet();
+                } catch (GeneralErrorException e) {
+                    assertThat(e.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // other failures roll back together with their stock deduction
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // when
+        long begin = System.nanoTime();
+        start.countDown();
+        for (var future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        // then
+        int remaining = stockService.remainingStock(itemId);
+
+        assertThat(success.get() + rejected.get() + failed.get()).isEqualTo(ORDERS);
+        assertThat(failed.get()).isZero();
+        assertThat(success.get()).isEqualTo(STOCK);
+        assertThat(remaining).isZero();
+        // balance harus sama dengan hasil hitung ulang dari ledger
+        assertThat(inventoryRepository.getStock(itemId)).isEqualTo(remaining);
+
+        System.out.printf("createOrder: %d orders, %d ok, %d rejected, %d failed in %d ms (%.0f orders/s)%n",
+                ORDERS, success.get(), rejected.get(), failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                ORDERS / (elapsedNanos / 1_000_000_000.0));
+    }
+
+    @Test
+    @DisplayName("updateOrder - updates racing with new orders for the last units never oversell")
+    void updateOrder_concurrent_noOversell() throws Exception {
+        // given: stok 10, satu order qty 1 yang terus diubah qty-nya sementara order baru masuk
+        int itemId = itemRepository.save(Item.builder()
+                .name("Last Units Update")
+                .price(3)
+                .build()).getId();
+        inventoryService.createInventory(new InventoryRequest(itemId, 10, "T"));
+        var orderNo = ordersService.createOrder(new OrdersRequest(itemId, 1)).orderNo();
+
+        var ordered = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int i = 0; i < 200; i++) {
+            int qty = 1 + i % 5;
+            boolean update = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    if (update) {
+                        ordersService.updateOrder(orderNo, new OrdersRequest(itemId, qty));
+                    } else {
+                        ordersService.createOrder(new OrdersRequest(itemId, 1));
+                        ordered.incrementAndGet();
+                    }
+                } catch (GeneralErrorException e) {
+                    assertThat(e.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+                }
+                return null;
+            }));
+        }
+
+        // when
+        start.countDown();
+        for (var future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then: setiap unit ada di balance, di order yang diubah, atau di order baru
+        int balance = stockService.currentStock(itemId);
+        int updatedQty = ordersRepository.findByOrderNo(orderNo).orElseThrow().getQty();
+
+        assertThat(balance).isNotNegative();
+        assertThat(balance + updatedQty + ordered.get()).isEqualTo(10);
+        assertThat(inventoryRepository.getStock(itemId)).isEqualTo(balance);
+
+        // delete mengembalikan qty order ke stok
+        ordersService.deleteOrder(orderNo);
+        assertThat(stockService.currentStock(itemId)).isEqualTo(balance + updatedQty);
+        assertThat(inventoryRepository.getStock(itemId)).isEqualTo(balance + updatedQty);
+    }
+}
@@ -1,16 +1,31 @@
 package co.id.project.dhimas.onlineshop.service;
 
 import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.config.OrderProperties;
 import co.id.project.dhimas.onlineshop.exception.ResourceNotFoundException;
-import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.exception.ThrottledException;
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
 import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.model.entity.StockReservation;
+import co.id.project.dhimas.onlineshop.model.request.OrdersBatchRequest;
 import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrderStatusResponse;
+import co.id.project.dhimas.onlineshop.model.response.OrdersBatchResponse;
 import co.id.project.dhimas.onlineshop.model.response.OrdersListResponse;
 import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
-import co.id.project.dhimas.onlineshop.repository.ItemRepository;
 import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.OrderAdmission;
+import co.id.project.dhimas.onlineshop.service.function.OrderNoGenerator;
+import co.id.project.dhimas.onlineshop.service.function.RowCountService;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.SerialLanes;
+import co.id.project.dhimas.onlineshop.service.function.StockLeases;
 import co.id.project.dhimas.onlineshop.service.function.StockService;
 import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import co.id.project.dhimas.onlineshop.utils.OrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,11 +33,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,17 +58,42 @@ class OrdersServiceTest {
     private OrdersRepository ordersRepository;
 
     @Mock
-    private ItemRepository itemRepository;
+    private ItemCatalog itemCatalog;
 
     @Mock
     private StockService stockService;
 
+    @Mock
+    private OrderNoGenerator orderNoGenerator;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Mock
+    private SerialLanes<OrdersRequest, OrdersResponse> orderLanes;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SerialLanes<Orders, OrdersResponse> orderIntake;
+
+    @Mock
+    private StockLeases stockLeases;
+
+    @Mock
+    private ShopMetrics shopMetrics;
+
+    // admission off: semua order lolos
+    @Spy
+    private OrderAdmission orderAdmission = admission(false, 100);
+
     @InjectMocks
     private OrdersService ordersService;
 
     private Orders order1;
     private Orders order2;
-    private Item item1;
+    private ItemCatalog.Snapshot item1;
 
     @BeforeEach
     void setup() {
@@ -64,11 +113,12 @@ class OrdersServiceTest {
                 .price(120)
                 .build();
 
-        item1 = Item.builder()
-                .id(5)
-                .name("Shoe")
-                .price(25) // dipakai untuk price kalkulasi qty * price
-                .build();
+        // dipakai untuk price kalkulasi qty * price
+        item1 = new ItemCatalog.Snapshot(5, "Shoe", 25);
+
+        // callback langsung dijalankan, seolah-olah di dalam transaksi
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -77,16 +127,18 @@ class OrdersServiceTest {
         // given
         var pageable = PageRequest.of(0, 2);
 
-        var pageData = new PageImpl<>(
+        var sliceData = new SliceImpl<>(
                 List.of(order1, order2),
                 pageable,
-                2
+                false
         );
 
-        when(ordersRepository.findAll(pageable)).thenReturn(pageData);
+        when(ordersRepository.findAllBy(pageable)).thenReturn(sliceData);
+        // total dari counter, bukan COUNT(*)
+        when(rowCountService.count(Orders.class)).thenReturn(2L);
 
         // when
-        OrdersListResponse response = ordersService.getOrder(0, 2);
+        OrdersListResponse response = ordersService.getOrder(0, 2, true);
 
         // then
         assertThat(response).isNotNull();
@@ -94,6 +146,7 @@ class OrdersServiceTest {
         assertThat(response.size()).isEqualTo(2);
         assertThat(response.totalItems()).isEqualTo(2);
         assertThat(response.totalPages()).isEqualTo(1);
+        assertThat(response.hasNext()).isFalse();
 
         assertThat(response.orders()).hasSize(2);
 
@@ -109,8 +162,68 @@ class OrdersServiceTest {
         assertThat(second.qty()).isEqualTo(4);
         assertThat(second.price()).isEqualTo(120);
 
-        verify(ordersRepository).findAll(pageable);
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(ordersRepository).findAllBy(pageable);
+        verify(rowCountService).count(Orders.class);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getOrder(page,size) - withTotal=false skips totals and only reports hasNext")
+    void getOrder_list_withoutTotal() {
+        // given
+        var pageable = PageRequest.of(0, 1);
+        when(ordersRepository.findAllBy(pageable))
+                .thenReturn(new SliceImpl<>(List.of(order1), pageable, true));
+
+        // when
+        OrdersListResponse response = ordersService.getOrder(0, 1, false);
+
+        // then
+        assertThat(response.orders()).hasSize(1);
+        assertThat(response.hasNext()).isTrue();
+        assertThat(response.totalItems()).isNull();
+        assertThat(response.totalPages()).isNull();
+
+        verify(ordersRepository).findAllBy(pageable);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, rowCountService);
+    }
+
+    @Test
+    @DisplayName("getOrderAfter - should return keyset page with next cursor")
+    void getOrderAfter_hasNext() {
+        // given: limit 1, repository mengembalikan 2 row
+        when(ordersRepository.findByIdGreaterThanOrderById(0, Limit.of(2)))
+                .thenReturn(List.of(order1, order2));
+
+        // when
+        OrdersListResponse response = ordersService.getOrderAfter(0, 1);
+
+        // then
+        assertThat(response.orders()).extracting(OrdersListResponse.Orders::orderNo).containsExactly("O10");
+        assertThat(response.size()).isEqualTo(1);
+        assertThat(response.nextCursor()).isEqualTo(1);
+        assertThat(response.totalItems()).isNull();
+
+        verify(ordersRepository).findByIdGreaterThanOrderById(0, Limit.of(2));
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
+    }
+
+    @Test
+    @DisplayName("getOrderAfter - last keyset page has no next cursor")
+    void getOrderAfter_lastPage() {
+        // given
+        when(ordersRepository.findByIdGreaterThanOrderById(1, Limit.of(3)))
+                .thenReturn(List.of(order2));
+
+        // when
+        OrdersListResponse response = ordersService.getOrderAfter(1, 2);
+
+        // then
+        assertThat(response.orders()).hasSize(1);
+        assertThat(response.nextCursor()).isNull();
+
+        verify(ordersRepository).findByIdGreaterThanOrderById(1, Limit.of(3));
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
@@ -131,7 +244,7 @@ class OrdersServiceTest {
         assertThat(response.price()).isEqualTo(50);
 
         verify(ordersRepository).findByOrderNo("O10");
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
@@ -146,7 +259,7 @@ class OrdersServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class);
 
         verify(ordersRepository).findByOrderNo("O99");
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
@@ -158,14 +271,14 @@ class OrdersServiceTest {
                 2   // qty
         );
 
-        // stok cukup
-        when(stockService.remainingStock(5)).thenReturn(10);
+        // stok cukup, withdrawal berhasil dipotong
+        when(stockService.withdrawStock(5, 2)).thenReturn(true);
 
         // item ada
-        when(itemRepository.findById(5)).thenReturn(Optional.of(item1));
+        when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
 
-        // last order no in db = "O10"
-        when(ordersRepository.findLastOrderNo()).thenReturn("O10");
+        // nomor berikutnya dari block generator
+        when(orderNoGenerator.nextOrderNo()).thenReturn("O11");
 
         // save() kita mock, ga perlu return value dipakai di service
         when(ordersRepository.save(any(Orders.class))).thenAnswer(inv -> inv.getArgument(0));
@@ -180,7 +293,7 @@ class OrdersServiceTest {
 
         Orders savedOrder = captor.getValue();
 
-        // createOrderNo() must produce O11 kalau last was O10
+        // order no diambil dari generator
         assertThat(savedOrder.getOrderNo()).isEqualTo("O11");
         assertThat(savedOrder.getItemId()).isEqualTo(5);
         assertThat(savedOrder.getQty()).isEqualTo(2);
@@ -193,11 +306,12 @@ class OrdersServiceTest {
         assertThat(response.qty()).isEqualTo(2);
         assertThat(response.price()).isEqualTo(50);
 
-        verify(stockService).remainingStock(5);
-        verify(itemRepository).findById(5);
-        verify(ordersRepository).findLastOrderNo();
+        verify(stockService).withdrawStock(5, 2);
+        verify(itemCatalog).find(5);
+        verify(orderNoGenerator).nextOrderNo();
         verify(ordersRepository).save(any(Orders.class));
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(rowCountService).add(Orders.class, 1);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, orderNoGenerator);
     }
 
     @Test
@@ -209,8 +323,8 @@ class OrdersServiceTest {
                 10 // minta 10
         );
 
-        // stok cuma 3
-        when(stockService.remainingStock(5)).thenReturn(3);
+        // stok cuma 3, conditional update tidak memotong apa-apa
+        when(stockService.withdrawStock(5, 10)).thenReturn(false);
 
         // when / then
         assertThatThrownBy(() -> ordersService.createOrder(request))
@@ -220,13 +334,340 @@ class OrdersServiceTest {
                     assertThat(gee.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
                 });
 
-        verify(stockService).remainingStock(5);
-        // createOrder harus fail sebelum nge-hit itemRepository/findLastOrderNo/save
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(stockService).withdrawStock(5, 10);
+        // createOrder harus fail sebelum nge-hit itemCatalog/orderNoGenerator/save
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, orderNoGenerator);
+    }
+
+    @Test
+    @DisplayName("createReservedOrder - takes the reservation and withdraws its held qty")
+    void createReservedOrder_success() {
+        // given: seluruh qty adalah hold milik reservasi ini
+        var now = Instant.parse("2026-01-01T00:00:00Z");
+        when(stockService.takeReservation("r-1", now))
+                .thenReturn(Optional.of(new StockReservation("r-1", 5, 2, now.plusSeconds(60))));
+        when(stockService.withdrawHeldStock(5, 2)).thenReturn(true);
+        when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
+        when(orderNoGenerator.nextOrderNo()).thenReturn("O12");
+
+        // when
+        OrdersResponse response = ordersService.createReservedOrder("r-1", now);
+
+        // then
+        assertThat(response.orderNo()).isEqualTo("O12");
+        assertThat(response.itemId()).isEqualTo(5);
+        assertThat(response.price()).isEqualTo(50);
+
+        verify(stockService).withdrawHeldStock(5, 2);
+        verify(ordersRepository).save(any(Orders.class));
+        verify(rowCountService).add(Orders.class, 1);
+    }
+
+    @Test
+    @DisplayName("createReservedOrder - unknown or expired reservation is not found, nothing is withdrawn")
+    void createReservedOrder_notFound() {
+        // given
+        var now = Instant.parse("2026-01-01T00:00:00Z");
+        when(stockService.takeReservation("r-1", now)).thenReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> ordersService.createReservedOrder("r-1", now))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(stockService, never()).withdrawHeldStock(anyInt(), anyInt());
+        verifyNoInteractions(ordersRepository);
+    }
+
+    @Test
+    @DisplayName("createOrder - sequencer on: orders of an item are decided in order against one locked read per group")
+    void createOrder_sequencer() {
+        // given: lane sungguhan, satu thread
+        try (var lanes = new SerialLanes<OrdersRequest, OrdersResponse>("order", 1, 50, 100)) {
+            var service = new OrdersService(ordersRepository, itemCatalog, stockService, orderNoGenerator,
+                    rowCountService, null, lanes, transactionTemplate, stockLeases, orderAdmission, orderIntake, null, shopMetrics);
+
+            when(itemCatalog.findAll(Set.of(5))).thenReturn(Map.of(5, item1));
+            // stok 3, order pertama memotong 2
+            when(stockService.lockStock(Set.of(5)))
+                    .thenReturn(Map.of(5, 3))
+                    .thenReturn(Map.of(5, 1));
+            when(orderNoGenerator.nextOrderNo()).thenReturn("O20");
+
+            // when
+            var created = service.createOrder(new OrdersRequest(5, 2));
+
+            // then
+            assertThat(created.orderNo()).isEqualTo("O20");
+            assertThat(created.price()).isEqualTo(50);
+
+            assertThatThrownBy(() -> service.createOrder(new OrdersRequest(5, 2)))
+                    .isInstanceOf(GeneralErrorException.class)
+                    .extracting(ex -> ((GeneralErrorException) ex).getErrorType())
+                    .isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+
+            // tidak ada conditional update per order, hanya write per group
+            verify(stockService, never()).withdrawStock(anyInt(), anyInt());
+            verify(stockService).withdrawStock(anyList());
+            verify(ordersRepository).saveAll(anyList());
+            verify(rowCountService).add(Orders.class, 1);
+        }
+    }
+
+    @Test
+    @DisplayName("createOrder - lease on: stock comes from the node's lease, not the shared balance")
+    void createOrder_leased() {
+        // given
+        when(stockLeases.enabled()).thenReturn(true);
+        when(stockLeases.take(5, 2)).thenReturn(true);
+        when(stockLeases.withdrawStock(5, 2)).thenReturn(true);
+        when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
+        when(orderNoGenerator.nextOrderNo()).thenReturn("O30");
+
+        // when
+        var created = ordersService.createOrder(new OrdersRequest(5, 2));
+
+        // then
+        assertThat(created.orderNo()).isEqualTo("O30");
+
+        verify(stockService, never()).withdrawStock(anyInt(), anyInt());
+        verify(stockLeases, never()).giveBack(anyInt(), anyInt());
+        verify(ordersRepository).save(any(Orders.class));
+    }
+
+    @Test
+    @DisplayName("createOrder - lease on: qty goes back to the lease when the order fails")
+    void createOrder_leased_failedGivesBack() {
+        // given: lease cukup di memory, tapi item tidak ada
+        when(stockLeases.enabled()).thenReturn(true);
+        when(stockLeases.take(5, 2)).thenReturn(true);
+        when(stockLeases.withdrawStock(5, 2)).thenReturn(true);
+        when(itemCatalog.find(5)).thenReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> ordersService.createOrder(new OrdersRequest(5, 2)))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(stockLeases).giveBack(5, 2);
+        verifyNoInteractions(ordersRepository);
     }
 
     @Test
-    @DisplayName("updateOrder - should update order if stock enough and both order + item exist")
+    @DisplayName("createOrder - lease on: rejected without a transaction when the lease cannot be topped up")
+    void createOrder_leased_notEnoughStock() {
+        // given
+        when(stockLeases.enabled()).thenReturn(true);
+        when(stockLeases.take(5, 10)).thenReturn(false);
+
+        // when / then
+        assertThatThrownBy(() -> ordersService.createOrder(new OrdersRequest(5, 10)))
+                .isInstanceOf(GeneralErrorException.class)
+                .extracting(ex -> ((GeneralErrorException) ex).getErrorType())
+                .isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+
+        verifyNoInteractions(transactionTemplate, ordersRepository);
+        verify(stockLeases, never()).giveBack(anyInt(), anyInt());
+        verify(shopMetrics).stockNotEnough(5, "order");
+    }
+
+    @Test
+    @DisplayName("createOrder - admission on: orders over the item's burst fail fast with Retry-After")
+    void createOrder_throttled() {
+        // given: item burst 1, order kedua langsung ditolak
+        var service = new OrdersService(ordersRepository, itemCatalog, stockService, orderNoGenerator,
+                rowCountService, null, orderLanes, transactionTemplate, stockLeases, admission(true, 1), orderIntake, null, shopMetrics);
+
+        when(stockService.withdrawStock(5, 1)).thenReturn(true);
+        when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
+        when(orderNoGenerator.nextOrderNo()).thenReturn("O40");
+
+        // when
+        service.createOrder(new OrdersRequest(5, 1));
+
+        // then
+        assertThatThrownBy(() -> service.createOrder(new OrdersRequest(5, 1)))
+                .isInstanceOf(ThrottledException.class)
+                .satisfies(ex -> {
+                    var throttled = (ThrottledException) ex;
+                    assertThat(throttled.getErrorType()).isEqualTo(ErrorType.ORDER_THROTTLED);
+                    assertThat(throttled.getRetryAfter()).isPositive();
+                });
+
+        // order yang ditolak tidak sampai ke stock maupun database
+        verify(stockService, times(1)).withdrawStock(5, 1);
+        verify(ordersRepository, times(1)).save(any(Orders.class));
+    }
+
+    @Test
+    @DisplayName("queueOrder - answers with the order number at once, the writer commits queued orders as one group")
+    @SuppressWarnings("unchecked")
+    void queueOrder_writtenInGroup() throws Exception {
+        // given: satu writer, group pertama (O49) menahan writer sampai O50 dan O51 ikut antri
+        try (var intake = new SerialLanes<Orders, OrdersResponse>("intake", 1, 50, 100)) {
+            var outcomes = new BoundedCache<String, OrderStatusResponse>("order-outcome", 100, Duration.ofMinutes(1));
+            var service = new OrdersService(ordersRepository, itemCatalog, stockService, orderNoGenerator,
+                    rowCountService, null, orderLanes, transactionTemplate, stockLeases, orderAdmission, intake, outcomes, shopMetrics);
+
+            when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
+            when(orderNoGenerator.nextOrderNo()).thenReturn("O49", "O50", "O51");
+            // stok tinggal 3 untuk group kedua: dua order qty 2
+            when(stockService.lockStock(Set.of(5))).thenReturn(Map.of(5, 10), Map.of(5, 3));
+
+            var release = new CountDownLatch(1);
+            doAnswer(inv -> {
+                release.await();
+                return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            }).when(transactionTemplate).execute(any());
+
+            service.queueOrder(new OrdersRequest(5, 2));
+            awaitTaken(intake);
+
+            // when
+            var first = service.queueOrder(new OrdersRequest(5, 2));
+            service.queueOrder(new OrdersRequest(5, 2));
+
+            // then: langsung QUEUED dengan nomor order
+            assertThat(first.orderNo()).isEqualTo("O50");
+            assertThat(first.status()).isEqualTo(OrderStatus.QUEUED);
+            assertThat(first.price()).isEqualTo(50);
+            assertThat(service.getOrderStatus("o51").status()).isEqualTo(OrderStatus.QUEUED);
+
+            release.countDown();
+            awaitStatus(service, "O51");
+
+            assertThat(service.getOrderStatus("O50").status()).isEqualTo(OrderStatus.CREATED);
+            var rejected = service.getOrderStatus("O51");
+            assertThat(rejected.status()).isEqualTo(OrderStatus.REJECTED);
+            assertThat(rejected.errorDesc()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH.getMessage());
+
+            // O50 dan O51 satu transaksi, nomor order dari intake yang dipakai
+            verify(transactionTemplate, times(2)).execute(any());
+            verify(orderNoGenerator, times(3)).nextOrderNo();
+            ArgumentCaptor<List<Orders>> captor = ArgumentCaptor.forClass(List.class);
+            verify(ordersRepository, times(2)).saveAll(captor.capture());
+            assertThat(captor.getAllValues().get(1)).extracting(Orders::getOrderNo).containsExactly("O50");
+        }
+    }
+
+    @Test
+    @DisplayName("queueOrder - a full intake queue is answered with ORDER_THROTTLED")
+    void queueOrder_queueFull() throws Exception {
+        // given: lane tanpa thread yang mengambil, kapasitas 1
+        try (var intake = new SerialLanes<Orders, OrdersResponse>("intake", 1, 50, 1)) {
+            var outcomes = new BoundedCache<String, OrderStatusResponse>("order-outcome", 100, Duration.ofMinutes(1));
+            var service = new OrdersService(ordersRepository, itemCatalog, stockService, orderNoGenerator,
+                    rowCountService, null, orderLanes, transactionTemplate, stockLeases, orderAdmission, intake, outcomes, shopMetrics);
+
+            var writing = new CountDownLatch(1);
+            var block = new CountDownLatch(1);
+            doAnswer(inv -> {
+                writing.countDown();
+                block.await();
+                return List.of();
+            }).when(transactionTemplate).execute(any());
+            when(itemCatalog.find(5)).thenReturn(Optional.of(item1));
+            when(orderNoGenerator.nextOrderNo()).thenReturn("O60", "O61", "O62");
+
+            // when: satu sedang ditulis, satu antri, yang ketiga penuh
+            service.queueOrder(new OrdersRequest(5, 1));
+            // tunggu sampai writer benar-benar di dalam transaksi, bukan cuma sudah ambil dari queue
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            service.queueOrder(new OrdersRequest(5, 1));
+
+            // then
+            assertThatThrownBy(() -> service.queueOrder(new OrdersRequest(5, 1)))
+                    .isInstanceOf(ThrottledException.class);
+            assertThatThrownBy(() -> service.getOrderStatus("O62"))
+                    .isInstanceOf(ResourceNotFoundException.class);
+
+            block.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("createOrders - should validate whole batch and save accepted lines together")
+    @SuppressWarnings("unchecked")
+    void createOrders_mixedResults() {
+        // given: stok item 5 = 5, item 99 tidak ada
+        var request = new OrdersBatchRequest(List.of(
+                new OrdersBatchRequest.Order(5, 3),
+                new OrdersBatchRequest.Order(5, 3),   // sisa stok tinggal 2
+                new OrdersBatchRequest.Order(99, 1),
+                new OrdersBatchRequest.Order(5, 2)
+        ));
+
+        when(itemCatalog.findAll(Set.of(5, 99))).thenReturn(Map.of(5, item1));
+        when(stockService.lockStock(Set.of(5, 99))).thenReturn(Map.of(5, 5));
+        when(orderNoGenerator.nextOrderNo()).thenReturn("O11", "O12");
+
+        // when
+        OrdersBatchResponse response = ordersService.createOrders(request);
+
+        // then
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.results())
+                .extracting(OrdersBatchResponse.Result::status)
+                .containsExactly("CREATED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(response.results())
+                .extracting(OrdersBatchResponse.Result::errorDesc)
+                .containsExactly(null, "STOCK_NOT_ENOUGH", "RESOURCE_NOT_FOUND", null);
+
+        var first = response.results().get(0);
+        assertThat(first.orderNo()).isEqualTo("O11");
+        assertThat(first.price()).isEqualTo(3 * 25);
+
+        var last = response.results().get(3);
+        assertThat(last.line()).isEqualTo(3);
+        assertThat(last.orderNo()).isEqualTo("O12");
+        assertThat(last.price()).isEqualTo(2 * 25);
+
+        ArgumentCaptor<List<Orders>> ordersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(ordersRepository).saveAll(ordersCaptor.capture());
+        assertThat(ordersCaptor.getValue())
+                .extracting(Orders::getOrderNo)
+                .containsExactly("O11", "O12");
+
+        // satu W row per line yang diterima
+        ArgumentCaptor<List<Inventory>> withdrawalCaptor = ArgumentCaptor.forClass(List.class);
+        verify(stockService).withdrawStock(withdrawalCaptor.capture());
+        assertThat(withdrawalCaptor.getValue())
+                .extracting(Inventory::getItemId, Inventory::getQty, Inventory::getType)
+                .containsExactly(
+                        tuple(5, 3, InventoryType.W),
+                        tuple(5, 2, InventoryType.W)
+                );
+
+        verify(itemCatalog).findAll(Set.of(5, 99));
+        verify(stockService).lockStock(Set.of(5, 99));
+        verify(orderNoGenerator, times(2)).nextOrderNo();
+        verify(rowCountService).add(Orders.class, 2);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, orderNoGenerator);
+    }
+
+    @Test
+    @DisplayName("createOrders - should not write anything if every line is rejected")
+    void createOrders_allRejected() {
+        // given
+        var request = new OrdersBatchRequest(List.of(new OrdersBatchRequest.Order(5, 10)));
+
+        when(itemCatalog.findAll(Set.of(5))).thenReturn(Map.of(5, item1));
+        when(stockService.lockStock(Set.of(5))).thenReturn(Map.of(5, 3));
+
+        // when
+        OrdersBatchResponse response = ordersService.createOrders(request);
+
+        // then
+        assertThat(response.created()).isZero();
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.results().get(0).errorDesc()).isEqualTo("STOCK_NOT_ENOUGH");
+
+        verify(itemCatalog).findAll(Set.of(5));
+        verify(stockService).lockStock(Set.of(5));
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService, orderNoGenerator);
+    }
+
+    @Test
+    @DisplayName("updateOrder - same item, only the extra qty is withdrawn")
     void updateOrder_success() {
         // given
         OrdersRequest request = new OrdersRequest(
@@ -234,17 +675,17 @@ class OrdersServiceTest {
                 3  // qty
         );
 
-        // stok cukup
-        when(stockService.remainingStock(5)).thenReturn(9);
-
-        // order found
-        when(ordersRepository.findByOrderNo("O10"))
+        // order found, qty lama 2
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
                 .thenReturn(Optional.of(order1));
 
         // item found
-        when(itemRepository.findById(5))
+        when(itemCatalog.find(5))
                 .thenReturn(Optional.of(item1)); // price=25
 
+        // selisih 1 diambil dari stok
+        when(stockService.withdrawStock(5, 1)).thenReturn(true);
+
         when(ordersRepository.save(any(Orders.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // when
@@ -255,24 +696,66 @@ class OrdersServiceTest {
         verify(ordersRepository).save(captor.capture());
 
         Orders saved = captor.getValue();
-        // id harus sama dengan order1.id karena kita set id(orders.getId())
         assertThat(saved.getId()).isEqualTo(1);
-        assertThat(saved.getOrderNo()).isEqualTo("o10"); // service pake argumen orderNo langsung di builder
+        assertThat(saved.getOrderNo()).isEqualTo("O10");
         assertThat(saved.getItemId()).isEqualTo(5);
         assertThat(saved.getQty()).isEqualTo(3);
         assertThat(saved.getPrice()).isEqualTo(3 * 25);
 
         // response harus sesuai object 'order' yang baru
-        assertThat(response.orderNo()).isEqualTo("o10");
+        assertThat(response.orderNo()).isEqualTo("O10");
         assertThat(response.itemId()).isEqualTo(5);
         assertThat(response.qty()).isEqualTo(3);
         assertThat(response.price()).isEqualTo(75);
 
-        verify(stockService).remainingStock(5);
-        verify(ordersRepository).findByOrderNo("O10");
-        verify(itemRepository).findById(5);
-        verify(ordersRepository).save(any(Orders.class));
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(ordersRepository).findByOrderNoForUpdate("O10");
+        verify(itemCatalog).find(5);
+        verify(stockService).withdrawStock(5, 1);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
+    }
+
+    @Test
+    @DisplayName("updateOrder - same item with less qty returns the difference")
+    void updateOrder_lessQty() {
+        // given: qty 2 jadi 1
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
+                .thenReturn(Optional.of(order1));
+        when(itemCatalog.find(5))
+                .thenReturn(Optional.of(item1));
+
+        // when
+        OrdersResponse response = ordersService.updateOrder("O10", new OrdersRequest(5, 1));
+
+        // then
+        assertThat(response.qty()).isEqualTo(1);
+        assertThat(response.price()).isEqualTo(25);
+
+        verify(stockService).restoreStock(5, 1);
+        verify(stockService, never()).withdrawStock(anyInt(), anyInt());
+        verify(ordersRepository).save(order1);
+    }
+
+    @Test
+    @DisplayName("updateOrder - other item, old qty goes back and new qty is withdrawn")
+    void updateOrder_otherItem() {
+        // given: item 5 qty 2 pindah ke item 7 qty 3
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
+                .thenReturn(Optional.of(order1));
+        when(itemCatalog.find(7))
+                .thenReturn(Optional.of(new ItemCatalog.Snapshot(7, "Hat", 30)));
+        when(stockService.withdrawStock(7, 3)).thenReturn(true);
+
+        // when
+        OrdersResponse response = ordersService.updateOrder("O10", new OrdersRequest(7, 3));
+
+        // then
+        assertThat(response.itemId()).isEqualTo(7);
+        assertThat(response.price()).isEqualTo(90);
+
+        var inOrder = inOrder(stockService);
+        inOrder.verify(stockService).restoreStock(5, 2);
+        inOrder.verify(stockService).withdrawStock(7, 3);
+        verify(ordersRepository).save(order1);
     }
 
     @Test
@@ -284,8 +767,13 @@ class OrdersServiceTest {
                 10 // minta 10
         );
 
-        // stok cuma 4
-        when(stockService.remainingStock(5)).thenReturn(4);
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
+                .thenReturn(Optional.of(order1));
+        when(itemCatalog.find(5))
+                .thenReturn(Optional.of(item1));
+
+        // selisih 8 tidak tersedia
+        when(stockService.withdrawStock(5, 8)).thenReturn(false);
 
         // when / then
         assertThatThrownBy(() -> ordersService.updateOrder("O10", request))
@@ -295,9 +783,13 @@ class OrdersServiceTest {
                     assertThat(gee.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
                 });
 
-        verify(stockService).remainingStock(5);
-        // harus stop sebelum findByOrderNo atau findById item
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        // order tidak diubah, transaksi di-rollback
+        assertThat(order1.getQty()).isEqualTo(2);
+        verify(ordersRepository).findByOrderNoForUpdate("O10");
+        verify(itemCatalog).find(5);
+        verify(stockService).withdrawStock(5, 8);
+        verify(shopMetrics).stockNotEnough(5, "order-update");
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
@@ -309,18 +801,15 @@ class OrdersServiceTest {
                 2
         );
 
-        when(stockService.remainingStock(5)).thenReturn(10);
-
-        when(ordersRepository.findByOrderNo("O123"))
+        when(ordersRepository.findByOrderNoForUpdate("O123"))
                 .thenReturn(Optional.empty());
 
         // when / then
         assertThatThrownBy(() -> ordersService.updateOrder("o123", request))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(stockService).remainingStock(5);
-        verify(ordersRepository).findByOrderNo("O123");
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(ordersRepository).findByOrderNoForUpdate("O123");
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
@@ -332,23 +821,20 @@ class OrdersServiceTest {
                 2
         );
 
-        when(stockService.remainingStock(99)).thenReturn(10);
-
-        when(ordersRepository.findByOrderNo("O10"))
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
                 .thenReturn(Optional.of(order1));
 
         // item not found
-        when(itemRepository.findById(99))
+        when(itemCatalog.find(99))
                 .thenReturn(Optional.empty());
 
         // when / then
         assertThatThrownBy(() -> ordersService.updateOrder("O10", request))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(stockService).remainingStock(99);
-        verify(ordersRepository).findByOrderNo("O10");
-        verify(itemRepository).findById(99);
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(ordersRepository).findByOrderNoForUpdate("O10");
+        verify(itemCatalog).find(99);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     // -----------------------------------------------------------------------
@@ -356,33 +842,52 @@ class OrdersServiceTest {
     // -----------------------------------------------------------------------
 
     @Test
-    @DisplayName("deleteOrder - should delete when order exists")
+    @DisplayName("deleteOrder - should delete when order exists and return its qty to the stock")
     void deleteOrder_success() {
         // given
-        when(ordersRepository.findByOrderNo("O10"))
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
                 .thenReturn(Optional.of(order1));
 
         // when
         ordersService.deleteOrder("o10");
 
         // then
-        verify(ordersRepository).findByOrderNo("O10");
+        verify(ordersRepository).findByOrderNoForUpdate("O10");
         verify(ordersRepository).deleteById(1);
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(rowCountService).add(Orders.class, -1);
+        verify(stockService).restoreStock(5, 2);
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
     }
 
     @Test
     @DisplayName("deleteOrder - should throw ResourceNotFoundException when order not found")
     void deleteOrder_notFound() {
         // given
-        when(ordersRepository.findByOrderNo("O10"))
+        when(ordersRepository.findByOrderNoForUpdate("O10"))
                 .thenReturn(Optional.empty());
 
         // when / then
         assertThatThrownBy(() -> ordersService.deleteOrder("o10"))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(ordersRepository).findByOrderNo("O10");
-        verifyNoMoreInteractions(ordersRepository, itemRepository, stockService);
+        verify(ordersRepository).findByOrderNoForUpdate("O10");
+        verifyNoMoreInteractions(ordersRepository, itemCatalog, stockService);
+    }
+
+    private static OrderAdmission admission(boolean enabled, int itemBurst) {
+        return new OrderAdmission(new OrderProperties(null, null,
+                new OrderProperties.Admission(enabled, 1000, 200, 1, itemBurst, 20, 4, 200, 3.0), null));
+    }
+
+    private static void awaitStatus(OrdersService service, String orderNo) throws InterruptedException {
+        for (int i = 0; i < 500 && service.getOrderStatus(orderNo).status() == OrderStatus.QUEUED; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitTaken(SerialLanes<?, ?> lanes) {
+        while (lanes.queued() > 0) {
+            Thread.onSpinWait();
+        }
     }
 }
@@ -0,0 +1,114 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.StockBalance;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.StockBalanceRepository;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ReservationConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int CALLS = 400;
+    private static final int STOCK = 20;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockBalanceRepository stockBalanceRepository;
+
+    @Test
+    @DisplayName("reserve and createOrder racing for the last units never promise more than the stock")
+    void reserveAndOrder_concurrent_noOverpromise() throws Exception {
+        // given: stok 20, separuh call reserve dan separuh createOrder, qty 1
+        int itemId = itemRepository.save(Item.builder()
+                .name("Last Units")
+                .price(4)
+                .build()).getId();
+        inventoryService.createInventory(new InventoryRequest(itemId, STOCK, "T"));
+
+        Queue<String> reservations = new ConcurrentLinkedQueue<>();
+        var ordered = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int i = 0; i < CALLS; i++) {
+            boolean reserve = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    if (reserve) {
+                        reservations.add(reservationService.reserve(new OrdersRequest(itemId, 1)).reservationId());
+                    } else {
+                        ordersService.createOrder(new OrdersRequest(itemId, 1));
+                        ordered.incrementAndGet();
+                    }
+                } catch (GeneralErrorException e) {
+                    assertThat(e.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // when
+        start.countDown();
+        for (var future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then: setiap unit dijual atau ditahan tepat satu kali
+        assertThat(reservations.size() + ordered.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(CALLS - STOCK);
+        assertThat(stockBalanceRepository.findById(itemId))
+                .get()
+                .extracting(StockBalance::getHeld)
+                .isEqualTo(reservations.size());
+
+        // setiap reservasi yang diterima bisa di-confirm, stok yang ditahan tidak diambil order lain
+        for (var reservationId : reservations) {
+            assertThatNoException().isThrownBy(() -> reservationService.confirm(reservationId));
+        }
+
+        var balance = stockBalanceRepository.findById(itemId).orElseThrow();
+        assertThat(balance.getQty()).isZero();
+        assertThat(balance.getHeld()).isZero();
+        // balance harus sama dengan hasil hitung ulang dari ledger
+        assertThat(inventoryRepository.getStock(itemId)).isZero();
+
+        System.out.printf("reserve/createOrder: %d reserved, %d ordered, %d rejected%n",
+                reservations.size(), ordered.get(), rejected.get());
+    }
+}
@@ -0,0 +1,194 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.config.OrderProperties;
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.exception.ResourceNotFoundException;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.model.response.OrdersResponse;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import co.id.project.dhimas.onlineshop.service.function.ShopMetrics;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.*;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private OrdersService ordersService;
+
+    @Mock
+    private ItemCatalog itemCatalog;
+
+    @Mock
+    private ShopMetrics shopMetrics;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setup() {
+        reservationService = reservationService(Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.close();
+    }
+
+    @Test
+    @DisplayName("reserve - holds the stock and tells when the hold runs out")
+    void reserve_success() {
+        // given
+        when(itemCatalog.find(5)).thenReturn(Optional.of(new ItemCatalog.Snapshot(5, "Shoe", 25)));
+        when(stockService.holdStock(anyString(), eq(5), eq(2), eq(NOW.plus(Duration.ofMinutes(10))))).thenReturn(true);
+
+        // when
+        var reservation = reservationService.reserve(new OrdersRequest(5, 2));
+
+        // then
+        assertThat(reservation.reservationId()).isNotBlank();
+        assertThat(reservation.itemId()).isEqualTo(5);
+        assertThat(reservation.qty()).isEqualTo(2);
+        assertThat(reservation.expiresAt().toInstant()).isEqualTo(NOW.plus(Duration.ofMinutes(10)));
+
+        verify(stockService).holdStock(reservation.reservationId(), 5, 2, NOW.plus(Duration.ofMinutes(10)));
+        // tidak ada write ke ledger saat reserve
+        verifyNoMoreInteractions(stockService, ordersService);
+    }
+
+    @Test
+    @DisplayName("reserve - should throw GeneralErrorException if stock not enough")
+    void reserve_notEnoughStock() {
+        // given
+        when(itemCatalog.find(5)).thenReturn(Optional.of(new ItemCatalog.Snapshot(5, "Shoe", 25)));
+        when(stockService.holdStock(anyString(), eq(5), eq(20), any())).thenReturn(false);
+
+        // when / then
+        assertThatThrownBy(() -> reservationService.reserve(new OrdersRequest(5, 20)))
+                .isInstanceOf(GeneralErrorException.class)
+                .extracting(ex -> ((GeneralErrorException) ex).getErrorType())
+                .isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+
+        verify(shopMetrics).stockNotEnough(5, "reservation");
+    }
+
+    @Test
+    @DisplayName("reserve - should throw ResourceNotFoundException if item not found")
+    void reserve_itemNotFound() {
+        // given
+        when(itemCatalog.find(99)).thenReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> reservationService.reserve(new OrdersRequest(99, 1)))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verifyNoInteractions(stockService);
+    }
+
+    @Test
+    @DisplayName("confirm - turns the reservation into an order and stops its expiry")
+    void confirm_success() {
+        // given: TTL pendek, expiry tidak boleh jalan lagi setelah confirm
+        reservationService.close();
+        reservationService = reservationService(Duration.ofMillis(50));
+        var reservationId = reserve(5, 2);
+        var order = new OrdersResponse("O30", 5, 2, 50);
+        when(ordersService.createReservedOrder(reservationId, NOW)).thenReturn(order);
+
+        // when
+        var result = reservationService.confirm(reservationId);
+
+        // then
+        assertThat(result).isEqualTo(order);
+        verify(stockService, after(200).never()).releaseStock(anyString());
+    }
+
+    @Test
+    @DisplayName("confirm - a failed order keeps the reservation and its expiry")
+    void confirm_orderFails() {
+        // given
+        reservationService.close();
+        reservationService = reservationService(Duration.ofMillis(50));
+        var reservationId = reserve(5, 2);
+        when(ordersService.createReservedOrder(reservationId, NOW))
+                .thenThrow(new ResourceNotFoundException());
+
+        // when / then
+        assertThatThrownBy(() -> reservationService.confirm(reservationId))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        // transaksi order rollback, hold tetap ada sampai expiry
+        verify(stockService, timeout(5_000)).releaseStock(reservationId);
+    }
+
+    @Test
+    @DisplayName("release - frees the hold without creating an order, only once")
+    void release_success() {
+        // given
+        var reservationId = reserve(5, 2);
+        when(stockService.releaseStock(reservationId)).thenReturn(true, false);
+
+        // when
+        reservationService.release(reservationId);
+
+        // then
+        verify(stockService).releaseStock(reservationId);
+        verifyNoInteractions(ordersService);
+
+        assertThatThrownBy(() -> reservationService.release(reservationId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("expiry - hold not confirmed within the TTL is released by the wheel")
+    void expiry_releasesHold() {
+        // given: TTL pendek supaya wheel sungguhan cepat jalan
+        reservationService.close();
+        reservationService = reservationService(Duration.ofMillis(50));
+        var reservationId = reserve(5, 2);
+
+        // when / then
+        verify(stockService, timeout(5_000)).releaseStock(reservationId);
+        verifyNoInteractions(ordersService);
+    }
+
+    @Test
+    @DisplayName("reclaim - expired holds of every node are given back")
+    void reclaim_expiredHolds() {
+        // when
+        reservationService.reclaimExpired();
+
+        // then
+        verify(stockService).reclaimExpiredHolds(NOW);
+    }
+
+    private ReservationService reservationService(Duration ttl) {
+        var properties = new OrderProperties.Reservation(ttl, Duration.ofMillis(10), 64, Duration.ofHours(1));
+        return new ReservationService(stockService, ordersService, itemCatalog, shopMetrics, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private String reserve(int itemId, int qty) {
+        when(itemCatalog.find(itemId)).thenReturn(Optional.of(new ItemCatalog.Snapshot(itemId, "Shoe", 25)));
+        when(stockService.holdStock(anyString(), eq(itemId), eq(qty), any())).thenReturn(true);
+
+        return reservationService.reserve(new OrdersRequest(itemId, qty)).reservationId();
+    }
+}
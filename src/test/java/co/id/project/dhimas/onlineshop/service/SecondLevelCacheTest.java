@@ -0,0 +1,99 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.ItemRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.BoundedCache;
+import co.id.project.dhimas.onlineshop.service.function.ItemCatalog;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BoundedCache<Integer, Optional<ItemCatalog.Snapshot>> itemCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Item - repeated loads from ItemService and OrdersService are served by the L2 cache")
+    void item_loadsServedFromSecondLevelCache() {
+        // given: item baru dengan stok, sudah di L2 setelah load pertama
+        int itemId = itemRepository.save(Item.builder()
+                .name("Cached Entity")
+                .price(8)
+                .build()).getId();
+        inventoryService.createInventory(new InventoryRequest(itemId, 50, "T"));
+        itemRepository.findById(itemId);
+
+        statistics.clear();
+
+        // when: tanpa near-cache ItemCatalog, setiap call nge-load Item lewat repository
+        for (int i = 0; i < 10; i++) {
+            itemCache.invalidateAll();
+            itemService.getItem(itemId);
+            itemCache.invalidateAll();
+            ordersService.createOrder(new OrdersRequest(itemId, 1));
+        }
+
+        // then: 20 entity loads dijawab L2, tidak ada SELECT ke tabel item
+        var entity = statistics.getEntityStatistics(Item.class.getName());
+        assertThat(entity.getLoadCount()).isZero();
+        assertThat(entity.getCacheHitCount()).isEqualTo(20);
+
+        System.out.printf("item loads: %d from L2, %d from the database%n",
+                entity.getCacheHitCount(), entity.getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Item - updateItem refreshes the L2 entry, next read sees the new price without a load")
+    void item_updateRefreshesEntry() {
+        // given
+        int itemId = itemRepository.save(Item.builder()
+                .name("Repriced")
+                .price(10)
+                .build()).getId();
+
+        // when
+        itemService.updateItem(itemId, new ItemRequest("Repriced", 12));
+        statistics.clear();
+        itemCache.invalidateAll();
+
+        // then
+        assertThat(itemService.getItem(itemId).price()).isEqualTo(12);
+        assertThat(statistics.getEntityStatistics(Item.class.getName()).getLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,67 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class StockBalanceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    @DisplayName("createInventory - concurrent first movements of a new item all land on one balance row")
+    void firstMovement_concurrent_noLostUpdate() throws Exception {
+        // given: item baru tanpa row stock_balance, 16 thread restock qty 1 bersamaan
+        int itemId = itemRepository.save(Item.builder()
+                .name("First Movement")
+                .price(2)
+                .build()).getId();
+
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                inventoryService.createInventory(new InventoryRequest(itemId, 1, "T"));
+                return null;
+            }));
+        }
+
+        // when: tidak ada yang gagal karena duplicate key
+        start.countDown();
+        for (var future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then: tidak ada qty yang hilang
+        assertThat(stockService.currentStock(itemId)).isEqualTo(THREADS);
+        assertThat(inventoryRepository.getStock(itemId)).isEqualTo(THREADS);
+    }
+}
@@ -0,0 +1,82 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.StockBalanceRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockService;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class StockCacheIntegrationTest {
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockBalanceRepository stockBalanceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("createOrder - cached balance that is too high does not let the order through")
+    void createOrder_staleCache_rejected() {
+        // given: stok 5, sudah ada di cache
+        int itemId = newItemWithStock(5);
+        assertThat(stockService.remainingStock(itemId)).isEqualTo(5);
+
+        // stok habis lewat jalur yang tidak invalidate cache (misal node lain)
+        transactionTemplate.executeWithoutResult(status -> stockBalanceRepository.deductStock(itemId, 5));
+        assertThat(stockService.remainingStock(itemId)).isEqualTo(5);
+
+        // when / then
+        assertThatThrownBy(() -> ordersService.createOrder(new OrdersRequest(itemId, 1)))
+                .isInstanceOf(GeneralErrorException.class)
+                .extracting(e -> ((GeneralErrorException) e).getErrorType())
+                .isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+        assertThat(stockService.currentStock(itemId)).isZero();
+    }
+
+    @Test
+    @DisplayName("createOrder / createInventory - committed writes are visible on the next cached read")
+    void writes_invalidateCache() {
+        // given
+        int itemId = newItemWithStock(5);
+        assertThat(stockService.remainingStock(itemId)).isEqualTo(5);
+
+        // when / then
+        ordersService.createOrder(new OrdersRequest(itemId, 2));
+        assertThat(stockService.remainingStock(itemId)).isEqualTo(3);
+
+        inventoryService.createInventory(new InventoryRequest(itemId, 10, "T"));
+        assertThat(stockService.remainingStock(itemId)).isEqualTo(13);
+    }
+
+    private int newItemWithStock(int qty) {
+        var item = itemRepository.save(Item.builder()
+                .name("Cached")
+                .price(4)
+                .build());
+        inventoryService.createInventory(new InventoryRequest(item.getId(), qty, "T"));
+        return item.getId();
+    }
+}
@@ -0,0 +1,150 @@
+package co.id.project.dhimas.onlineshop.service;
+
+import co.id.project.dhimas.onlineshop.OnlineShopServiceApplication;
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.StockLease;
+import co.id.project.dhimas.onlineshop.model.request.InventoryRequest;
+import co.id.project.dhimas.onlineshop.model.request.OrdersRequest;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.StockBalanceRepository;
+import co.id.project.dhimas.onlineshop.repository.StockLeaseRepository;
+import co.id.project.dhimas.onlineshop.service.function.StockLeases;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Several application contexts with stock leasing on, sharing one file database
+ * the way horizontally scaled instances share one.
+ */
+class StockLeaseMultiNodeTest {
+
+    private static final int NODES = 3;
+    private static final int STOCK = 200;
+    private static final int ORDERS = 600;
+    private static final int THREADS = 24;
+
+    @TempDir
+    private Path dir;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("createOrder - orders spread over nodes sell the whole stock exactly once")
+    void createOrder_acrossNodes_noOversell() throws Exception {
+        // given: 3 node, satu database file, item baru dengan stok 200
+        String url = "jdbc:h2:file:" + dir.resolve("shop") + ";MODE=PostgreSQL";
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(start(url, "node-" + i, i == 0));
+        }
+
+        var first = nodes.get(0);
+        var item = first.getBean(ItemRepository.class).save(Item.builder()
+                .name("Multi Node")
+                .price(7)
+                .build());
+        int itemId = item.getId();
+        first.getBean(InventoryService.class).createInventory(new InventoryRequest(itemId, STOCK, "T"));
+
+        var success = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int i = 0; i < ORDERS; i++) {
+            // order bergiliran ke setiap node, seperti di belakang load balancer
+            var ordersService = nodes.get(i % NODES).getBean(OrdersService.class);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    ordersService.createOrder(new OrdersRequest(itemId, 1));
+                    success.incrementAndGet();
+                } catch (GeneralErrorException e) {
+                    assertThat(e.getErrorType()).isEqualTo(ErrorType.STOCK_NOT_ENOUGH);
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // when
+        long begin = System.nanoTime();
+        start.countDown();
+        for (var future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        // then: a node only rejects once its lease and the balance are both empty
+        assertThat(failed.get()).isZero();
+        assertThat(success.get()).isEqualTo(STOCK);
+        // setiap unit terjual, masih di lease salah satu node, atau kembali ke balance
+        assertThat(balance(itemId) + leased(itemId)).isEqualTo(STOCK - success.get());
+        assertThat(first.getBean(InventoryRepository.class).getStock(itemId)).isEqualTo(STOCK - success.get());
+
+        // node berhenti: sisa lease kembali ke balance
+        for (var node : nodes) {
+            node.getBean(StockLeases.class).close();
+        }
+        assertThat(leased(itemId)).isZero();
+        assertThat(balance(itemId)).isEqualTo(STOCK - success.get());
+
+        System.out.printf("createOrder over %d nodes: %d orders, %d ok, %d rejected in %d ms (%.0f orders/s)%n",
+                NODES, ORDERS, success.get(), rejected.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                ORDERS / (elapsedNanos / 1_000_000_000.0));
+    }
+
+    private ConfigurableApplicationContext start(String url, String nodeId, boolean first) {
+        return new SpringApplicationBuilder(OnlineShopServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                // command line args, application.yml would win over default properties
+                .run(
+                        "--spring.datasource.url=" + url,
+                        // seed data sekali saja, oleh node pertama
+                        "--spring.sql.init.mode=" + (first ? "always" : "never"),
+                        // second-level cache per node tidak melihat write dari node lain
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.region.factory_class=none",
+                        "--spring.jmx.enabled=false",
+                        "--origin.stock.lease.enabled=true",
+                        "--origin.stock.lease.node-id=" + nodeId
+                );
+    }
+
+    private int balance(int itemId) {
+        return nodes.get(0).getBean(StockBalanceRepository.class).findById(itemId).orElseThrow().getQty();
+    }
+
+    private int leased(int itemId) {
+        return nodes.get(0).getBean(StockLeaseRepository.class).findAll().stream()
+                .filter(lease -> lease.getItemId() == itemId)
+                .mapToInt(StockLease::getQty)
+                .sum();
+    }
+}
@@ -0,0 +1,78 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = 1_000_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000);
+
+    // limit awal 10, min 2, max 20, lambat = lebih dari 2x latency terbaik
+    private final AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20, 2.0, now::get);
+
+    @Test
+    @DisplayName("tryAcquire - calls over the limit are rejected until one is released")
+    void tryAcquire_overLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.rejected()).isEqualTo(1);
+
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("release - fast calls under load grow the limit by one per limit's worth of calls")
+    void release_growsWhenFast() {
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+
+        // 10 panggilan cepat selagi limit terpakai penuh
+        for (int i = 0; i < 10; i++) {
+            now.addAndGet(FAST);
+            limit.release(FAST);
+            limit.tryAcquire();
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+        now.addAndGet(FAST);
+        limit.release(FAST);
+        assertThat(limit.limit()).isEqualTo(11);
+        assertThat(limit.baselineNanos()).isEqualTo(FAST);
+    }
+
+    @Test
+    @DisplayName("release - slow calls cut the limit once per round trip, never below the minimum")
+    void release_backsOffWhenSlow() {
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+        now.addAndGet(FAST);
+        limit.release(FAST);
+
+        // 3 panggilan lambat yang mulai sebelum penurunan pertama: hanya satu penurunan
+        for (int i = 0; i < 3; i++) {
+            now.addAndGet(FAST);
+            limit.release(5 * FAST);
+        }
+        assertThat(limit.limit()).isEqualTo(9);
+
+        // latency tetap tinggi lama: turun terus sampai minimum
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            now.addAndGet(10 * FAST);
+            limit.release(5 * FAST);
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+}
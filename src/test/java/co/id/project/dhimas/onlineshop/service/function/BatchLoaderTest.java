@@ -0,0 +1,126 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BatchLoaderTest {
+
+    private final List<Set<Integer>> loaded = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("load - different keys in one window are answered by one loader call")
+    void load_batchesDifferentKeys() throws Exception {
+        // window panjang, batch dikirim begitu penuh 4 key
+        var loader = new BatchLoader<Integer, Integer>("test", Duration.ofSeconds(30), 4);
+
+        var results = loadConcurrently(loader, List.of(1, 2, 3, 4));
+
+        assertThat(results).containsExactly(10, 20, 30, 40);
+        assertThat(loaded).containsExactly(Set.of(1, 2, 3, 4));
+
+        var stats = loader.stats();
+        assertThat(stats.calls()).isEqualTo(4);
+        assertThat(stats.batches()).isEqualTo(1);
+        assertThat(stats.keys()).isEqualTo(4);
+        assertThat(stats.largestBatch()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("load - a full batch is closed and later keys start the next one")
+    void load_splitsAtMaxSize() throws Exception {
+        var loader = new BatchLoader<Integer, Integer>("test", Duration.ofSeconds(30), 2);
+
+        var results = loadConcurrently(loader, List.of(1, 2, 3, 4));
+
+        assertThat(results).containsExactly(10, 20, 30, 40);
+        assertThat(loaded).hasSize(2).allSatisfy(keys -> assertThat(keys).hasSize(2));
+        assertThat(loader.stats().batches()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("load - the same key twice in a window is looked up once")
+    void load_sameKeyOnce() throws Exception {
+        var loader = new BatchLoader<Integer, Integer>("test", Duration.ofSeconds(30), 2);
+        var executor = Executors.newFixedThreadPool(3);
+
+        // key 1 dua kali tidak membuat batch penuh, key 2 yang menutupnya
+        var first = executor.submit(() -> loader.load(1, this::load));
+        var second = executor.submit(() -> loader.load(1, this::load));
+        while (loader.stats().calls() < 2) {
+            Thread.sleep(1);
+        }
+        var third = executor.submit(() -> loader.load(2, this::load));
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(10);
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(10);
+        assertThat(third.get(10, TimeUnit.SECONDS)).isEqualTo(20);
+        executor.shutdown();
+
+        assertThat(loaded).containsExactly(Set.of(1, 2));
+        assertThat(loader.stats().calls()).isEqualTo(3);
+        assertThat(loader.stats().keys()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("load - a lone key is loaded once the window has passed")
+    void load_windowElapses() {
+        var loader = new BatchLoader<Integer, Integer>("test", Duration.ofMillis(1), 100);
+
+        assertThat(loader.load(7, this::load)).isEqualTo(70);
+        assertThat(loaded).containsExactly(Set.of(7));
+    }
+
+    @Test
+    @DisplayName("load - failure of the loader is thrown to every caller of the batch")
+    void load_failureShared() throws Exception {
+        var loader = new BatchLoader<Integer, Integer>("test", Duration.ofSeconds(30), 2);
+        var executor = Executors.newFixedThreadPool(2);
+
+        var futures = new ArrayList<Future<Integer>>();
+        for (int key : List.of(1, 2)) {
+            futures.add(executor.submit(() -> loader.load(key, keys -> {
+                throw new IllegalStateException("db down");
+            })));
+        }
+
+        for (var future : futures) {
+            assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("db down");
+        }
+        executor.shutdown();
+    }
+
+    private List<Integer> loadConcurrently(BatchLoader<Integer, Integer> loader, List<Integer> keys) throws Exception {
+        var executor = Executors.newFixedThreadPool(keys.size());
+        var futures = new ArrayList<Future<Integer>>();
+
+        for (int key : keys) {
+            futures.add(executor.submit(() -> loader.load(key, this::load)));
+        }
+
+        var results = new ArrayList<Integer>();
+        for (var future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        return results;
+    }
+
+    private Map<Integer, Integer> load(Set<Integer> keys) {
+        loaded.add(Set.copyOf(keys));
+        return keys.stream().collect(Collectors.toMap(Function.identity(), key -> key * 10));
+    }
+}
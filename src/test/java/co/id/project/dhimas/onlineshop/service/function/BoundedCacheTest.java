@@ -0,0 +1,139 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final BoundedCache<Integer, Integer> cache =
+            new BoundedCache<>("test", 2, Duration.ofSeconds(5), now::get);
+
+    @Test
+    @DisplayName("get - loads on miss, serves later reads from memory")
+    void get_hitAndMiss() {
+        assertThat(cache.get(1, this::load)).isEqualTo(10);
+        assertThat(cache.get(1, this::load)).isEqualTo(10);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get - least recently used entry is evicted when the cache is full")
+    void get_evictsLeastRecentlyUsed() {
+        cache.get(1, this::load);
+        tick();
+        cache.get(2, this::load);
+        tick();
+        // 1 dibaca lagi, jadi 2 yang paling lama tidak dipakai
+        cache.get(1, this::load);
+        tick();
+        cache.get(3, this::load);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+
+        cache.get(1, this::load);
+        assertThat(loads).hasValue(3);
+
+        cache.get(2, this::load);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("get - entry older than the TTL is loaded again")
+    void get_expires() {
+        cache.get(1, this::load);
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.get(1, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("invalidate - next read goes back to the loader")
+    void invalidate_reloads() {
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+
+        cache.invalidate(1);
+        cache.get(1, this::load);
+        assertThat(loads).hasValue(3);
+
+        cache.invalidateAll(List.of(1, 2));
+        assertThat(cache.size()).isZero();
+
+        cache.get(2, this::load);
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("get - value loaded while the key was invalidated is returned but not cached")
+    void get_invalidatedDuringLoad_notStored() {
+        // loader lambat, di tengah load ada write yang invalidate
+        int value = cache.get(1, key -> {
+            cache.invalidate(key);
+            return 99;
+        });
+
+        assertThat(value).isEqualTo(99);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("get - concurrent hits and loads keep the cache within its size")
+    void get_concurrent_bounded() throws Exception {
+        var shared = new BoundedCache<Integer, Integer>("shared", 50, Duration.ofMinutes(1));
+        var executor = Executors.newFixedThreadPool(8);
+        var futures = new ArrayList<Future<?>>();
+
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 10_000; i++) {
+                    // sebagian besar hit di 20 key panas, sisanya miss yang bikin eviction
+                    int key = random.nextInt(10) < 8 ? random.nextInt(20) : 20 + random.nextInt(1_000);
+                    assertThat(shared.get(key, k -> k * 10)).isEqualTo(key * 10);
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        var stats = shared.stats();
+        assertThat(shared.size()).isLessThanOrEqualTo(50);
+        assertThat(stats.hits() + stats.misses()).isEqualTo(80_000);
+        assertThat(stats.evictions()).isPositive();
+    }
+
+    private void tick() {
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+    }
+
+    private Integer load(Integer key) {
+        loads.incrementAndGet();
+        return key * 10;
+    }
+}
@@ -0,0 +1,188 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.GeneratorProperties;
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetGeneratorTest {
+
+    // 50 item, 2000 order, restock 20, chunk 300 row
+    private static final GeneratorProperties PROPERTIES =
+            new GeneratorProperties(true, 42, 50, 2000, 1.0, 5, 20, 300, 100);
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    @Mock
+    private OrderNoGenerator orderNoGenerator;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Mock
+    private ItemCatalog itemCatalog;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Inventory> ledger = new ArrayList<>();
+    private final List<Orders> orders = new ArrayList<>();
+    private final List<Integer> chunkSizes = new ArrayList<>();
+    private final Map<Integer, Integer> prices = new HashMap<>();
+
+    @BeforeEach
+    void setup() {
+        var ids = new AtomicInteger(100);
+        var orderNos = new AtomicInteger();
+
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        // id dari sequence diisi saat save
+        lenient().when(itemRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Item> items = inv.getArgument(0);
+            items.forEach(item -> {
+                item.setId(ids.getAndIncrement());
+                prices.put(item.getId(), item.getPrice());
+            });
+            return items;
+        });
+        lenient().when(inventoryRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Inventory> rows = inv.getArgument(0);
+            chunkSizes.add(rows.size());
+            ledger.addAll(rows);
+            return rows;
+        });
+        lenient().when(ordersRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Orders> rows = inv.getArgument(0);
+            orders.addAll(rows);
+            return rows;
+        });
+        lenient().when(orderNoGenerator.nextOrderNo()).thenAnswer(inv -> "O" + orderNos.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("generate - every order has its W row and the ledger never goes below zero")
+    void generate_consistentLedger() {
+        // when
+        var result = generator(PROPERTIES).generate();
+
+        // then
+        assertThat(result.items()).isEqualTo(50);
+        assertThat(result.orders()).isEqualTo(2000);
+        assertThat(orders).hasSize(2000);
+        assertThat(ledger).hasSize(result.topUps() + result.withdrawals());
+        assertThat(ledger).filteredOn(row -> row.getType() == InventoryType.W).hasSize(2000);
+        // satu T awal per item, sisanya restock
+        assertThat(result.topUps()).isGreaterThan(50);
+
+        var balances = new HashMap<Integer, Integer>();
+        int orderIndex = 0;
+        for (var row : ledger) {
+            int balance = balances.merge(row.getItemId(), row.getType().signedQty(row.getQty()), Integer::sum);
+            assertThat(balance).isNotNegative();
+
+            if (row.getType() == InventoryType.W) {
+                var order = orders.get(orderIndex++);
+                assertThat(order.getItemId()).isEqualTo(row.getItemId());
+                assertThat(order.getQty()).isEqualTo(row.getQty()).isBetween(1, 5);
+                // total order seperti createOrder: qty * harga item
+                assertThat(order.getPrice()).isEqualTo(order.getQty() * prices.get(order.getItemId()));
+            }
+        }
+        assertThat(balances).hasSize(50);
+
+        // item paling populer paling sering dipesan
+        var ordersByItem = new HashMap<Integer, Integer>();
+        orders.forEach(order -> ordersByItem.merge(order.getItemId(), 1, Integer::sum));
+        assertThat(ordersByItem.get(result.mostPopularItemId())).isEqualTo(ordersByItem.values().stream()
+                .max(Integer::compare)
+                .orElseThrow());
+
+        // ditulis per chunk, saldo dihitung ulang sekali di akhir
+        assertThat(chunkSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(300));
+        verify(stockService).rebuildStock();
+        verify(itemCatalog).evict(argThat(ids -> ids.size() == 50));
+        verify(session, atLeastOnce()).setJdbcBatchSize(100);
+    }
+
+    @Test
+    @DisplayName("generate - same seed writes the same rows")
+    void generate_reproducible() {
+        // when
+        generator(PROPERTIES).generate();
+        var firstLedger = describe(ledger);
+        var firstOrders = orders.stream().map(o -> o.getItemId() + "x" + o.getQty() + "@" + o.getPrice()).toList();
+        ledger.clear();
+        orders.clear();
+        setup();
+
+        generator(PROPERTIES).generate();
+
+        // then
+        assertThat(describe(ledger)).isEqualTo(firstLedger);
+        assertThat(orders.stream().map(o -> o.getItemId() + "x" + o.getQty() + "@" + o.getPrice()).toList())
+                .isEqualTo(firstOrders);
+    }
+
+    @Test
+    @DisplayName("run - disabled generator leaves the database alone")
+    void run_disabled() {
+        // given
+        var disabled = new GeneratorProperties(false, 42, 50, 2000, 1.0, 5, 20, 300, 100);
+
+        // when
+        generator(disabled).run(new DefaultApplicationArguments());
+
+        // then
+        verifyNoInteractions(itemRepository, inventoryRepository, ordersRepository, stockService, transactionManager);
+    }
+
+    private DatasetGenerator generator(GeneratorProperties properties) {
+        return new DatasetGenerator(properties, itemRepository, inventoryRepository, ordersRepository,
+                orderNoGenerator, stockService, rowCountService, itemCatalog, entityManager, transactionManager);
+    }
+
+    private static List<String> describe(List<Inventory> rows) {
+        return rows.stream().map(row -> row.getItemId() + ":" + row.getType() + row.getQty()).toList();
+    }
+}
@@ -0,0 +1,109 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+
+    private record Row(int id, String name) {
+    }
+
+    @BeforeEach
+    void setup() {
+        exportService = new ExportService(new ObjectMapper(), entityManager, transactionManager);
+    }
+
+    @Test
+    @DisplayName("export NDJSON - one JSON object per line, inside a read-only transaction")
+    void export_ndjson() throws Exception {
+        // given
+        var closed = new AtomicBoolean();
+        var body = exportService.export(ExportFormat.NDJSON,
+                List.of("id", "name"),
+                () -> Stream.of(new Row(1, "Pen"), new Row(2, "Book")).onClose(() -> closed.set(true)),
+                row -> List.of(row.id(), row.name()));
+
+        // when
+        var output = write(body);
+
+        // then
+        assertThat(output).isEqualTo("""
+                {"id":1,"name":"Pen"}
+                {"id":2,"name":"Book"}
+                """);
+        // stream (cursor) harus ditutup setelah selesai
+        assertThat(closed).isTrue();
+
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("export CSV - header first, values with separators are quoted")
+    void export_csv() throws Exception {
+        // given
+        var body = exportService.export(ExportFormat.CSV,
+                List.of("id", "name"),
+                () -> Stream.of(new Row(1, "Pen"), new Row(2, "Book, \"blue\"")),
+                row -> List.of(row.id(), row.name()));
+
+        // when
+        var output = write(body);
+
+        // then
+        assertThat(output).isEqualTo("id,name\r\n1,Pen\r\n2,\"Book, \"\"blue\"\"\"\r\n");
+    }
+
+    @Test
+    @DisplayName("export - persistence context is cleared every chunk so memory stays flat")
+    void export_clearsEveryChunk() throws Exception {
+        // given: 2.5 chunk
+        int rows = ExportService.CHUNK_SIZE * 5 / 2;
+        var body = exportService.export(ExportFormat.CSV,
+                List.of("id"),
+                () -> IntStream.range(0, rows).boxed(),
+                id -> List.of(id));
+
+        // when
+        var output = write(body);
+
+        // then
+        assertThat(output.lines()).hasSize(rows + 1);
+        verify(entityManager, times(2)).clear();
+    }
+
+    private String write(StreamingResponseBody body) throws Exception {
+        var out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
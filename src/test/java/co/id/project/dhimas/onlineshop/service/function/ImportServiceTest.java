@@ -0,0 +1,233 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.ImportProperties;
+import co.id.project.dhimas.onlineshop.exception.GeneralErrorException;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.request.ItemRequest;
+import co.id.project.dhimas.onlineshop.model.response.ImportResponse;
+import co.id.project.dhimas.onlineshop.utils.ErrorType;
+import co.id.project.dhimas.onlineshop.utils.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<List<String>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+    }
+
+    @Test
+    @DisplayName("importRows CSV - valid rows are written, invalid rows are reported by row number")
+    void importRows_csv() {
+        // given
+        var csv = """
+                name,price
+                Mug,12
+                "Cup, large",-1
+                ,5
+                Plate,abc
+                "Say ""hi""\",7
+                """;
+
+        // when
+        var response = importItems(service(100, 10), ExportFormat.CSV, csv);
+
+        // then
+        assertThat(response.total()).isEqualTo(5);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.errorsTruncated()).isFalse();
+        assertThat(response.errors())
+                .extracting(ImportResponse.Error::row, ImportResponse.Error::errorDesc)
+                .containsExactly(
+                        tuple(2, "price must be greater than or equal to 0"),
+                        tuple(3, "name must not be blank"),
+                        tuple(4, "price must be a number"));
+
+        assertThat(chunks).containsExactly(List.of("Mug", "Say \"hi\""));
+        verify(session).setJdbcBatchSize(10);
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    @DisplayName("importRows NDJSON - one object per line, blank lines skipped, bad JSON reported")
+    void importRows_ndjson() {
+        // given
+        var ndjson = """
+                {"name":"Mug","price":12}
+
+                not json
+                {"name":"Plate","price":3}
+                """;
+
+        // when
+        var response = importItems(service(100, 10), ExportFormat.NDJSON, ndjson);
+
+        // then
+        assertThat(response.total()).isEqualTo(3);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.errors())
+                .extracting(ImportResponse.Error::row, ImportResponse.Error::errorDesc)
+                .containsExactly(tuple(2, "invalid JSON"));
+
+        assertThat(chunks).containsExactly(List.of("Mug", "Plate"));
+    }
+
+    @Test
+    @DisplayName("importRows - every chunk commits in its own transaction")
+    void importRows_chunked() {
+        // given: 5 row valid, chunk 2 -> 2 + 2 + 1
+        var csv = new StringBuilder("name,price\n");
+        for (int i = 1; i <= 5; i++) {
+            csv.append("Sku ").append(i).append(',').append(i).append('\n');
+        }
+
+        // when
+        var response = importItems(service(2, 10), ExportFormat.CSV, csv.toString());
+
+        // then
+        assertThat(response.imported()).isEqualTo(5);
+        assertThat(chunks).containsExactly(
+                List.of("Sku 1", "Sku 2"),
+                List.of("Sku 3", "Sku 4"),
+                List.of("Sku 5"));
+
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("importRows - a failed chunk is written again row by row, only the failing rows are rejected")
+    void importRows_chunkFails() {
+        // given: chunk 2, "Sold Out" gagal di writer -> chunk pertama diulang per row
+        var csv = "name,price\nMug,1\nSold Out,2\nCup,3\nPlate,4\nBroken,5\n";
+        var attempts = new ArrayList<List<String>>();
+
+        // when
+        var response = service(2, 10).importRows(ExportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                row -> new ItemRequest(row.text("name"), row.integer("price")),
+                request -> Item.builder()
+                        .name(request.name())
+                        .price(request.price())
+                        .build(),
+                items -> {
+                    var names = items.stream().map(Item::getName).toList();
+                    attempts.add(names);
+                    if (names.contains("Sold Out")) {
+                        throw new GeneralErrorException(ErrorType.STOCK_NOT_ENOUGH);
+                    }
+                    if (names.contains("Broken")) {
+                        throw new DataIntegrityViolationException("constraint violated");
+                    }
+                    chunks.add(names);
+                });
+
+        // then: laporan tetap dikembalikan, chunk berikutnya tetap jalan
+        assertThat(response.total()).isEqualTo(5);
+        assertThat(response.imported()).isEqualTo(3);
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.errors())
+                .extracting(ImportResponse.Error::row, ImportResponse.Error::errorDesc)
+                .containsExactly(
+                        tuple(2, "STOCK_NOT_ENOUGH"),
+                        tuple(5, "row could not be written"));
+
+        // chunk satu row yang gagal tidak diulang
+        assertThat(attempts).containsExactly(
+                List.of("Mug", "Sold Out"),
+                List.of("Mug"),
+                List.of("Sold Out"),
+                List.of("Cup", "Plate"),
+                List.of("Broken"));
+        assertThat(chunks).containsExactly(List.of("Mug"), List.of("Cup", "Plate"));
+        verify(transactionManager, times(3)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("importRows - error report is capped, the rest is only counted")
+    void importRows_errorsTruncated() {
+        // given: 1 error listed at most
+        var service = new ImportService(new ImportProperties(100, 10, 1),
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                entityManager,
+                transactionManager);
+
+        // when
+        var response = importItems(service, ExportFormat.CSV, "name,price\nA,-1\nB,-2\nC,-3\n");
+
+        // then
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.errors()).hasSize(1);
+        assertThat(response.errorsTruncated()).isTrue();
+        assertThat(response.imported()).isZero();
+
+        // tidak ada row valid, tidak ada transaksi
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("importRows CSV - row with a wrong number of columns is rejected")
+    void importRows_csv_wrongColumns() {
+        // when
+        var response = importItems(service(100, 10), ExportFormat.CSV, "name,price\nMug\nCup,3\n");
+
+        // then
+        assertThat(response.errors())
+                .extracting(ImportResponse.Error::errorDesc)
+                .containsExactly("expected 2 columns but got 1");
+        assertThat(chunks).containsExactly(List.of("Cup"));
+    }
+
+    private ImportService service(int chunkSize, int batchSize) {
+        return new ImportService(new ImportProperties(chunkSize, batchSize, 1000),
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                entityManager,
+                transactionManager);
+    }
+
+    private ImportResponse importItems(ImportService service, ExportFormat format, String content) {
+        return service.importRows(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                row -> new ItemRequest(row.text("name"), row.integer("price")),
+                request -> Item.builder()
+                        .name(request.name())
+                        .price(request.price())
+                        .build(),
+                items -> chunks.add(items.stream().map(Item::getName).toList()));
+    }
+}
@@ -0,0 +1,115 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCatalogTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Spy
+    private BoundedCache<Integer, Optional<ItemCatalog.Snapshot>> itemCache =
+            new BoundedCache<>("item", 100, Duration.ofMinutes(1));
+
+    @InjectMocks
+    private ItemCatalog itemCatalog;
+
+    @Test
+    @DisplayName("find - item row is read once, later lookups come from the cache")
+    void find_cached() {
+        // given
+        when(itemRepository.findById(5)).thenReturn(Optional.of(item(5, "Shoe", 45, 2)));
+
+        // when
+        itemCatalog.find(5);
+        var snapshot = itemCatalog.find(5);
+
+        // then
+        assertThat(snapshot).contains(new ItemCatalog.Snapshot(5, "Shoe", 45));
+        verify(itemRepository, times(1)).findById(5);
+    }
+
+    @Test
+    @DisplayName("find - unknown id is cached as empty until evicted")
+    void find_missingThenEvicted() {
+        // given
+        when(itemRepository.findById(8))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(item(8, "Mug", 12, 0)));
+
+        // when / then
+        assertThat(itemCatalog.find(8)).isEmpty();
+        assertThat(itemCatalog.find(8)).isEmpty();
+
+        itemCatalog.evict(List.of(8));
+        assertThat(itemCatalog.find(8)).map(ItemCatalog.Snapshot::price).contains(12);
+
+        verify(itemRepository, times(2)).findById(8);
+    }
+
+    @Test
+    @DisplayName("findAll - cached items are not queried again, misses load in one query")
+    void findAll_loadsMissesTogether() {
+        // given: item 5 sudah di cache
+        when(itemRepository.findById(5)).thenReturn(Optional.of(item(5, "Shoe", 45, 0)));
+        itemCatalog.find(5);
+
+        when(itemRepository.findAllById(Set.of(6, 99))).thenReturn(List.of(item(6, "Box", 5, 0)));
+
+        // when
+        var items = itemCatalog.findAll(Set.of(5, 6, 99));
+
+        // then
+        assertThat(items).containsOnlyKeys(5, 6);
+        assertThat(items.get(6).price()).isEqualTo(5);
+
+        verify(itemRepository).findById(5);
+        verify(itemRepository).findAllById(Set.of(6, 99));
+
+        // semua sudah di cache, termasuk 99 yang tidak ada
+        itemCatalog.findAll(Set.of(5, 6, 99));
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    @DisplayName("evict - updated price is picked up by the next lookup")
+    void evict_reloadsNewVersion() {
+        // given
+        when(itemRepository.findById(5))
+                .thenReturn(Optional.of(item(5, "Shoe", 45, 0)))
+                .thenReturn(Optional.of(item(5, "Shoe", 50, 1)));
+        itemCatalog.find(5);
+
+        // when
+        itemCatalog.evict(List.of(5));
+
+        // then
+        assertThat(itemCatalog.find(5)).contains(new ItemCatalog.Snapshot(5, "Shoe", 50));
+    }
+
+    private Item item(int id, String name, int price, int version) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .price(price)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.OrderProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderAdmissionTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    // global 2 per detik burst 2, tiap item 1 per detik burst 2
+    private final OrderAdmission admission = new OrderAdmission(new OrderProperties(null, null,
+            new OrderProperties.Admission(true, 2, 2, 1, 2, 20, 4, 200, 3.0), null), now::get);
+
+    @Test
+    @DisplayName("admit - a request turned away by the global bucket keeps its item token")
+    void admit_globalThrottled_itemTokenReturned() {
+        // given: item 1 menghabiskan bucket global
+        try (var first = admission.admit(1); var second = admission.admit(1)) {
+            assertThat(first.admitted()).isTrue();
+            assertThat(second.admitted()).isTrue();
+        }
+
+        // when: item 2 ditolak global tiga kali berturut-turut
+        for (int i = 0; i < 3; i++) {
+            try (var ticket = admission.admit(2)) {
+                // then: Retry-After dari global, bucket item 2 tidak ikut terkuras
+                assertThat(ticket.admitted()).isFalse();
+                assertThat(ticket.retryAfter()).isEqualTo(Duration.ofMillis(500));
+            }
+        }
+
+        // satu token global kembali, item 2 langsung lolos
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        try (var ticket = admission.admit(2)) {
+            assertThat(ticket.admitted()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderNoGeneratorTest {
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    private OrderNoGenerator orderNoGenerator;
+
+    @BeforeEach
+    void setup() {
+        orderNoGenerator = new OrderNoGenerator(ordersRepository);
+
+        // order_no_seq dengan INCREMENT BY 3
+        when(ordersRepository.orderNoBlockSize()).thenReturn(3L);
+    }
+
+    @Test
+    @DisplayName("nextOrderNo - hands out a whole block before asking the sequence again")
+    void nextOrderNo_block() {
+        // given: sequence start 11 increment 3
+        when(ordersRepository.nextOrderNoBlock()).thenReturn(11L, 14L);
+
+        // when
+        var orderNos = List.of(
+                orderNoGenerator.nextOrderNo(),
+                orderNoGenerator.nextOrderNo(),
+                orderNoGenerator.nextOrderNo(),
+                orderNoGenerator.nextOrderNo()
+        );
+
+        // then
+        assertThat(orderNos).containsExactly("O11", "O12", "O13", "O14");
+        // increment dibaca sekali saja
+        verify(ordersRepository).orderNoBlockSize();
+        verify(ordersRepository, times(2)).nextOrderNoBlock();
+        verifyNoMoreInteractions(ordersRepository);
+    }
+
+    @Test
+    @DisplayName("nextOrderNo - concurrent callers never get the same number")
+    void nextOrderNo_concurrent_unique() throws Exception {
+        // given: sequence yang naik 3 setiap dipanggil
+        var sequence = new AtomicLong(1);
+        when(ordersRepository.nextOrderNoBlock()).thenAnswer(inv -> sequence.getAndAdd(3));
+
+        Set<String> orderNos = ConcurrentHashMap.newKeySet();
+        var executor = Executors.newFixedThreadPool(8);
+        var futures = new ArrayList<Future<?>>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    orderNos.add(orderNoGenerator.nextOrderNo());
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then: 8000 nomor unik, tanpa gap karena tiap block habis dipakai
+        assertThat(orderNos).hasSize(8_000);
+        assertThat(orderNos).contains("O1", "O8000");
+    }
+}
@@ -0,0 +1,122 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.Item;
+import co.id.project.dhimas.onlineshop.model.entity.Orders;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.ItemRepository;
+import co.id.project.dhimas.onlineshop.repository.OrdersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RowCountServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private RowCountService rowCountService;
+
+    @BeforeEach
+    void setup() {
+        rowCountService = new RowCountService(itemRepository, inventoryRepository, ordersRepository,
+                Duration.ofMinutes(1), ticker::get);
+    }
+
+    @Test
+    @DisplayName("count - runs COUNT(*) once, then follows the writes")
+    void count_loadsOnceThenTracksWrites() {
+        // given
+        when(itemRepository.count()).thenReturn(7L);
+
+        // when / then
+        assertThat(rowCountService.count(Item.class)).isEqualTo(7);
+
+        rowCountService.add(Item.class, 3);
+        rowCountService.add(Item.class, -1);
+
+        assertThat(rowCountService.count(Item.class)).isEqualTo(9);
+
+        verify(itemRepository).count();
+        verifyNoMoreInteractions(itemRepository, inventoryRepository, ordersRepository);
+    }
+
+    @Test
+    @DisplayName("add - writes before the first count are picked up by COUNT(*)")
+    void add_beforeLoad_ignored() {
+        // given
+        rowCountService.add(Orders.class, 5);
+        when(ordersRepository.count()).thenReturn(15L);
+
+        // when / then
+        assertThat(rowCountService.count(Orders.class)).isEqualTo(15);
+        assertThat(rowCountService.count(Orders.class)).isEqualTo(15);
+
+        verify(ordersRepository).count();
+        verifyNoMoreInteractions(itemRepository, inventoryRepository, ordersRepository);
+    }
+
+    @Test
+    @DisplayName("count - every table keeps its own counter")
+    void count_perTable() {
+        // given
+        when(inventoryRepository.count()).thenReturn(9L);
+        when(ordersRepository.count()).thenReturn(10L);
+
+        // when / then
+        assertThat(rowCountService.count(Inventory.class)).isEqualTo(9);
+        assertThat(rowCountService.count(Orders.class)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("count - a counter older than the ttl is counted again, drift from other nodes is dropped")
+    void count_reloadsAfterTtl() {
+        // given: node lain menambah 4 row yang tidak pernah lewat add()
+        when(itemRepository.count()).thenReturn(7L, 11L);
+
+        assertThat(rowCountService.count(Item.class)).isEqualTo(7);
+        rowCountService.add(Item.class, 1);
+
+        // when / then: sebelum ttl masih counter lama
+        ticker.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertThat(rowCountService.count(Item.class)).isEqualTo(8);
+
+        ticker.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(rowCountService.count(Item.class)).isEqualTo(11);
+
+        verify(itemRepository, times(2)).count();
+    }
+
+    @Test
+    @DisplayName("add - a write committed while COUNT(*) runs is left to the query, not counted twice")
+    void add_duringLoad_notCountedTwice() {
+        // given: commit terjadi saat COUNT(*) jalan, hasil query sudah termasuk row itu
+        when(ordersRepository.count()).thenAnswer(inv -> {
+            rowCountService.add(Orders.class, 1);
+            return 16L;
+        });
+
+        // when / then
+        assertThat(rowCountService.count(Orders.class)).isEqualTo(16);
+        rowCountService.add(Orders.class, 1);
+        assertThat(rowCountService.count(Orders.class)).isEqualTo(17);
+    }
+}
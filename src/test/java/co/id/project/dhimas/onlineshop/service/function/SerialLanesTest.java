@@ -0,0 +1,162 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SerialLanesTest {
+
+    private final List<List<String>> groups = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private SerialLanes<String, String> lanes;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        if (lanes != null) {
+            lanes.close();
+        }
+    }
+
+    @Test
+    @DisplayName("submit - requests queued behind a busy lane are handled as one group, in order")
+    void submit_groupsQueuedRequests() throws Exception {
+        lanes = new SerialLanes<>("test", 1, 50, 100);
+
+        // request pertama menahan lane, sisanya antre
+        var first = submit(1, "a");
+        waitUntil(() -> groups.size() == 1);
+
+        var queued = new ArrayList<Future<String>>();
+        for (var request : List.of("b", "c", "d")) {
+            queued.add(submit(1, request));
+            waitUntil(() -> lanes.queued() == queued.size());
+        }
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("A");
+        for (var future : queued) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(groups).containsExactly(List.of("a"), List.of("b", "c", "d"));
+    }
+
+    @Test
+    @DisplayName("submit - a group is never larger than the max group size")
+    void submit_maxGroupSize() throws Exception {
+        lanes = new SerialLanes<>("test", 1, 2, 100);
+
+        var first = submit(1, "a");
+        waitUntil(() -> groups.size() == 1);
+
+        var queued = new ArrayList<Future<String>>();
+        for (var request : List.of("b", "c", "d")) {
+            queued.add(submit(1, request));
+            waitUntil(() -> lanes.queued() == queued.size());
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (var future : queued) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(groups).containsExactly(List.of("a"), List.of("b", "c"), List.of("d"));
+    }
+
+    @Test
+    @DisplayName("submit - a key on another lane is not held up by a busy lane")
+    void submit_otherLaneRuns() throws Exception {
+        lanes = new SerialLanes<>("test", 2, 50, 100);
+
+        var blocked = submit(0, "a");
+        waitUntil(() -> groups.size() == 1);
+
+        // key 1 ada di lane lain
+        assertThat(submit(1, "b").get(10, TimeUnit.SECONDS)).isEqualTo("B");
+        assertThat(blocked).isNotDone();
+
+        release.countDown();
+        assertThat(blocked.get(10, TimeUnit.SECONDS)).isEqualTo("A");
+    }
+
+    @Test
+    @DisplayName("submit - a failed group is retried one request at a time")
+    void submit_failedGroupRetriedOneByOne() throws Exception {
+        lanes = new SerialLanes<>("test", 1, 50, 100);
+
+        var first = submit(1, "a");
+        waitUntil(() -> groups.size() == 1);
+        var good = submit(1, "good");
+        waitUntil(() -> lanes.queued() == 1);
+        var bad = submit(1, "bad");
+        waitUntil(() -> lanes.queued() == 2);
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        assertThat(good.get(10, TimeUnit.SECONDS)).isEqualTo("GOOD");
+        assertThatThrownBy(() -> bad.get(10, TimeUnit.SECONDS))
+                .hasRootCauseMessage("bad request");
+        assertThat(groups).containsExactly(List.of("a"), List.of("good", "bad"), List.of("good"), List.of("bad"));
+    }
+
+    @Test
+    @DisplayName("submit - a request the handler leaves open is failed instead of waiting forever")
+    void submit_notCompleted() {
+        lanes = new SerialLanes<>("test", 1, 50, 100);
+
+        assertThatThrownBy(() -> lanes.submit(1, "a", tasks -> { }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("request was not completed by the handler");
+    }
+
+    @Test
+    @DisplayName("enabled - no lanes means the sequencer is off")
+    void enabled_noLanes() {
+        assertThat(new SerialLanes<String, String>("test", 0, 50, 100).enabled()).isFalse();
+    }
+
+    private Future<String> submit(int key, String request) {
+        return executor.submit(() -> lanes.submit(key, request, this::handle));
+    }
+
+    private void handle(List<SerialLanes.Task<String, String>> tasks) {
+        var requests = tasks.stream().map(SerialLanes.Task::request).toList();
+        groups.add(requests);
+
+        if (requests.equals(List.of("a"))) {
+            await(release);
+        }
+        if (requests.contains("bad")) {
+            throw new IllegalArgumentException("bad request");
+        }
+
+        tasks.forEach(task -> task.complete(task.request().toUpperCase()));
+    }
+
+    private static void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.call()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
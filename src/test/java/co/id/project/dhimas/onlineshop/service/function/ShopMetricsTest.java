@@ -0,0 +1,61 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.MetricsConfig;
+import co.id.project.dhimas.onlineshop.config.MetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShopMetricsTest {
+
+    @Test
+    @DisplayName("stockNotEnough - one counter per item and operation")
+    void stockNotEnough_taggedByItem() {
+        var registry = new SimpleMeterRegistry();
+        var shopMetrics = new ShopMetrics(registry);
+
+        shopMetrics.stockNotEnough(5, "order");
+        shopMetrics.stockNotEnough(5, "order");
+        shopMetrics.stockNotEnough(5, "batch");
+
+        assertThat(registry.get(ShopMetrics.STOCK_NOT_ENOUGH).tags("item", "5", "operation", "order")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get(ShopMetrics.STOCK_NOT_ENOUGH).tags("item", "5", "operation", "batch")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stockNotEnough - item ids past the limit are not registered")
+    void stockNotEnough_itemLimit() {
+        var registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().stockNotEnoughItemLimit(new MetricsProperties(2)));
+        var shopMetrics = new ShopMetrics(registry);
+
+        // item ketiga ditolak filter, item yang sudah ada tetap dihitung
+        shopMetrics.stockNotEnough(1, "order");
+        shopMetrics.stockNotEnough(2, "order");
+        shopMetrics.stockNotEnough(3, "order");
+        shopMetrics.stockNotEnough(1, "order");
+
+        assertThat(registry.find(ShopMetrics.STOCK_NOT_ENOUGH).counters()).hasSize(2);
+        assertThat(registry.find(ShopMetrics.STOCK_NOT_ENOUGH).tag("item", "3").counter()).isNull();
+        assertThat(registry.get(ShopMetrics.STOCK_NOT_ENOUGH).tag("item", "1").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("remainingStock - records the elapsed time")
+    void remainingStock_timed() {
+        var registry = new SimpleMeterRegistry();
+        var shopMetrics = new ShopMetrics(registry);
+
+        shopMetrics.remainingStock(TimeUnit.MILLISECONDS.toNanos(3));
+
+        var timer = registry.get("shop.stock.remaining").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,159 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SingleFlight<Integer, Integer> singleFlight = new SingleFlight<>("test");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("execute - concurrent callers of one key share a single load")
+    void execute_coalescesSameKey() throws Exception {
+        // loader ditahan sampai semua caller sudah menunggu hasil yang sama
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        var futures = new ArrayList<Future<Integer>>();
+
+        futures.add(executor.submit(() -> singleFlight.execute(1, key -> {
+            await(release);
+            return load(key);
+        })));
+        waitUntilInFlight(1);
+
+        for (int i = 1; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute(1, this::load)));
+        }
+        waitUntilCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (var future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(10);
+        }
+        executor.shutdown();
+
+        var stats = singleFlight.stats();
+        assertThat(loads).hasValue(1);
+        assertThat(stats.calls()).isEqualTo(CALLERS);
+        assertThat(stats.executions()).isEqualTo(1);
+        assertThat(stats.coalesced()).isEqualTo(CALLERS - 1);
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("execute - different keys do not wait on each other")
+    void execute_otherKeyNotBlocked() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+
+        var slow = executor.submit(() -> singleFlight.execute(1, key -> {
+            await(release);
+            return load(key);
+        }));
+        waitUntilInFlight(1);
+
+        // key 2 jalan sendiri walaupun key 1 masih ditahan
+        assertThat(singleFlight.execute(2, this::load)).isEqualTo(20);
+
+        release.countDown();
+        assertThat(slow.get(10, TimeUnit.SECONDS)).isEqualTo(10);
+        executor.shutdown();
+
+        assertThat(singleFlight.stats().coalesced()).isZero();
+    }
+
+    @Test
+    @DisplayName("execute - sequential calls each run the loader")
+    void execute_sequential_notCoalesced() {
+        singleFlight.execute(1, this::load);
+        singleFlight.execute(1, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(singleFlight.stats().coalesced()).isZero();
+    }
+
+    @Test
+    @DisplayName("execute - failure of the load is thrown to every waiting caller")
+    void execute_failureShared() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+
+        var leader = executor.submit(() -> singleFlight.execute(1, key -> {
+            await(release);
+            throw new IllegalStateException("db down");
+        }));
+        waitUntilInFlight(1);
+
+        var follower = executor.submit(() -> singleFlight.execute(1, this::load));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        for (var future : List.of(leader, follower)) {
+            assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("db down");
+        }
+        executor.shutdown();
+
+        // call berikutnya tidak ikut gagal, load ulang
+        assertThat(singleFlight.execute(1, this::load)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("forget - caller arriving after a write does not join the older load")
+    void forget_startsNewLoad() throws Exception {
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+
+        var stale = executor.submit(() -> singleFlight.execute(1, key -> {
+            await(release);
+            return -1;
+        }));
+        waitUntilInFlight(1);
+
+        singleFlight.forget(List.of(1));
+        assertThat(singleFlight.execute(1, this::load)).isEqualTo(10);
+
+        release.countDown();
+        assertThat(stale.get(10, TimeUnit.SECONDS)).isEqualTo(-1);
+        executor.shutdown();
+
+        assertThat(singleFlight.stats().coalesced()).isZero();
+    }
+
+    private Integer load(Integer key) {
+        loads.incrementAndGet();
+        return key * 10;
+    }
+
+    private void waitUntilInFlight(int expected) throws InterruptedException {
+        while (singleFlight.stats().inFlight() < expected) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void waitUntilCoalesced(long expected) throws InterruptedException {
+        while (singleFlight.stats().coalesced() < expected) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
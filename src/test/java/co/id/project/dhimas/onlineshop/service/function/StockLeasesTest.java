@@ -0,0 +1,138 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.config.StockProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLeasesTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant EXPIRES_AT = NOW.plusSeconds(30);
+
+    @Mock
+    private StockService stockService;
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private StockLeases stockLeases;
+
+    @BeforeEach
+    void setup() {
+        // enabled=false: tidak ada thread maintenance, maintain() dipanggil manual
+        var properties = new StockProperties.Lease(false, "node-a", 10, Duration.ofSeconds(30), Duration.ofSeconds(10));
+        stockLeases = new StockLeases(stockService, properties, Clock.fixed(NOW, ZoneOffset.UTC), ticker::get);
+    }
+
+    @Test
+    @DisplayName("take - leases one block and serves the next orders from memory")
+    void take_leasesBlockOnce() {
+        // given
+        when(stockService.leaseStock(5, 10, "node-a", EXPIRES_AT)).thenReturn(10);
+
+        // when: 10 order qty 1, lalu order ke-11
+        for (int i = 0; i < 10; i++) {
+            assertThat(stockLeases.take(5, 1)).isTrue();
+        }
+        when(stockService.leaseStock(5, 10, "node-a", EXPIRES_AT)).thenReturn(0);
+        boolean eleventh = stockLeases.take(5, 1);
+
+        // then: hanya 2x ke database, satu block dan satu top up yang gagal
+        assertThat(eleventh).isFalse();
+        verify(stockService, times(2)).leaseStock(5, 10, "node-a", EXPIRES_AT);
+    }
+
+    @Test
+    @DisplayName("take - an order larger than the block leases what it is short of")
+    void take_largerThanBlock() {
+        // given: sisa 3 di memory, order 25
+        when(stockService.leaseStock(5, 10, "node-a", EXPIRES_AT)).thenReturn(3);
+        assertThat(stockLeases.take(5, 5)).isFalse();
+        when(stockService.leaseStock(5, 22, "node-a", EXPIRES_AT)).thenReturn(22);
+
+        // when / then
+        assertThat(stockLeases.take(5, 25)).isTrue();
+    }
+
+    @Test
+    @DisplayName("giveBack - qty of a failed order can be taken again without a new lease")
+    void giveBack_reusable() {
+        // given
+        when(stockService.leaseStock(5, 10, "node-a", EXPIRES_AT)).thenReturn(2);
+        assertThat(stockLeases.take(5, 2)).isTrue();
+
+        // when
+        stockLeases.giveBack(5, 2);
+
+        // then
+        assertThat(stockLeases.take(5, 2)).isTrue();
+        verify(stockService, times(1)).leaseStock(anyInt(), anyInt(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("withdrawStock - a lease row taken over by another node drops the lease in memory")
+    void withdrawStock_leaseGone() {
+        // given
+        when(stockService.leaseStock(5, 10, "node-a", EXPIRES_AT)).thenReturn(10, 10);
+        assertThat(stockLeases.take(5, 1)).isTrue();
+        when(stockService.withdrawLeasedStock(5, 1, "node-a")).thenReturn(false);
+
+        // when
+        assertThat(stockLeases.withdrawStock(5, 1)).isFalse();
+        stockLeases.giveBack(5, 1);
+
+        // then: give back tidak ke memory yang sudah basi, order berikutnya lease baru
+        verify(stockService).returnLease(5, 1, "node-a");
+        assertThat(stockLeases.take(5, 1)).isTrue();
+        verify(stockService, times(2)).leaseStock(5, 10, "node-a", EXPIRES_AT);
+    }
+
+    @Test
+    @DisplayName("maintain - renews live leases, returns idle ones and reclaims expired leases of other nodes")
+    void maintain_returnsIdle() {
+        // given: item 5 dipakai terakhir di t=0, item 6 di t=8s
+        when(stockService.leaseStock(anyInt(), eq(10), eq("node-a"), eq(EXPIRES_AT))).thenReturn(10);
+        stockLeases.take(5, 4);
+        ticker.set(Duration.ofSeconds(8).toNanos());
+        stockLeases.take(6, 1);
+
+        // when
+        ticker.set(Duration.ofSeconds(12).toNanos());
+        stockLeases.maintain();
+
+        // then
+        verify(stockService).renewLeases("node-a", EXPIRES_AT);
+        verify(stockService).returnLease(5, 6, "node-a");
+        verify(stockService, never()).returnLease(eq(6), anyInt(), anyString());
+        verify(stockService).reclaimExpiredLeases(NOW);
+    }
+
+    @Test
+    @DisplayName("close - gives every unsold lease back to the balance")
+    void close_returnsAll() {
+        // given
+        when(stockService.leaseStock(anyInt(), eq(10), eq("node-a"), eq(EXPIRES_AT))).thenReturn(10);
+        stockLeases.take(5, 4);
+        stockLeases.take(6, 10);
+
+        // when
+        stockLeases.close();
+
+        // then
+        verify(stockService).returnLease(5, 6, "node-a");
+        verify(stockService).returnLease(6, 0, "node-a");
+    }
+}
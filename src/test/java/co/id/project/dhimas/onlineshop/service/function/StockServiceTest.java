@@ -0,0 +1,534 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import co.id.project.dhimas.onlineshop.model.entity.Inventory;
+import co.id.project.dhimas.onlineshop.model.entity.StockBalance;
+import co.id.project.dhimas.onlineshop.model.entity.StockLease;
+import co.id.project.dhimas.onlineshop.model.entity.StockReservation;
+import co.id.project.dhimas.onlineshop.repository.InventoryRepository;
+import co.id.project.dhimas.onlineshop.repository.StockBalanceRepository;
+import co.id.project.dhimas.onlineshop.repository.StockLeaseRepository;
+import co.id.project.dhimas.onlineshop.repository.StockReservationRepository;
+import co.id.project.dhimas.onlineshop.utils.InventoryType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private StockBalanceRepository stockBalanceRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Spy
+    private BoundedCache<Integer, Integer> stockCache = new BoundedCache<>("stock", 100, Duration.ofMinutes(1));
+
+    @Spy
+    private SingleFlight<Integer, Integer> stockReads = new SingleFlight<>("stock");
+
+    // window 0: setiap lookup langsung jalan tanpa menunggu key lain
+    @Spy
+    private BatchLoader<Integer, Integer> stockLookups = new BatchLoader<>("stock", Duration.ZERO, 100);
+
+    @Mock
+    private StockLeaseRepository stockLeaseRepository;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private ShopMetrics shopMetrics;
+
+    @InjectMocks
+    private StockService stockService;
+
+    @Test
+    @DisplayName("remainingStock - reads the balance row of the item")
+    void remainingStock_success() {
+        // given
+        when(stockBalanceRepository.findAllWithLeases(Set.of(5))).thenReturn(List.of(new StockBalance(5, 35)));
+
+        // when / then
+        assertThat(stockService.remainingStock(5)).isEqualTo(35);
+
+        verify(stockBalanceRepository).findAllWithLeases(Set.of(5));
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("remainingStock - second read of the same item is served from the cache")
+    void remainingStock_cached() {
+        // given
+        when(stockBalanceRepository.findAllWithLeases(Set.of(5))).thenReturn(List.of(new StockBalance(5, 35)));
+
+        // when
+        stockService.remainingStock(5);
+        int cached = stockService.remainingStock(5);
+
+        // then
+        assertThat(cached).isEqualTo(35);
+        assertThat(stockCache.stats().hits()).isEqualTo(1);
+        assertThat(stockCache.stats().misses()).isEqualTo(1);
+
+        verify(stockBalanceRepository, times(1)).findAllWithLeases(Set.of(5));
+    }
+
+    @Test
+    @DisplayName("currentStock - always reads the balance row, cache is not used")
+    void currentStock_bypassesCache() {
+        // given
+        when(stockBalanceRepository.findById(5)).thenReturn(Optional.of(new StockBalance(5, 35)));
+
+        // when
+        stockService.currentStock(5);
+        stockService.currentStock(5);
+
+        // then
+        verify(stockBalanceRepository, times(2)).findById(5);
+        verifyNoInteractions(stockCache);
+    }
+
+    @Test
+    @DisplayName("currentStock - stock held by reservations is left out")
+    void currentStock_excludesHolds() {
+        // given: 4 dari 10 ditahan reservasi
+        when(stockBalanceRepository.findById(5)).thenReturn(Optional.of(new StockBalance(5, 10, 4)));
+
+        // when / then
+        assertThat(stockService.currentStock(5)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("deductStock - conditional update, evicts the item only when it went through")
+    void deductStock_conditional() {
+        // given
+        when(stockBalanceRepository.deductStock(5, 3)).thenReturn(1);
+        when(stockBalanceRepository.deductStock(6, 3)).thenReturn(0);
+
+        // when / then
+        assertThat(stockService.deductStock(5, 3)).isTrue();
+        assertThat(stockService.deductStock(6, 3)).isFalse();
+
+        verify(stockCache).invalidateAll(List.of(5));
+        verifyNoMoreInteractions(stockCache);
+    }
+
+    @Test
+    @DisplayName("adjustStock / withdrawStock - evict the cached balance of the item")
+    void writes_evictCache() {
+        // given: stok item 5 sudah ada di cache
+        when(stockBalanceRepository.findAllWithLeases(Set.of(5)))
+                .thenReturn(List.of(new StockBalance(5, 35)))
+                .thenReturn(List.of(new StockBalance(5, 45)))
+                .thenReturn(List.of(new StockBalance(5, 44)));
+        when(stockBalanceRepository.addStock(5, 10)).thenReturn(1);
+        when(stockBalanceRepository.deductStock(5, 1)).thenReturn(1);
+
+        assertThat(stockService.remainingStock(5)).isEqualTo(35);
+
+        // when / then
+        stockService.adjustStock(5, 10);
+        assertThat(stockService.remainingStock(5)).isEqualTo(45);
+
+        stockService.withdrawStock(5, 1);
+        assertThat(stockService.remainingStock(5)).isEqualTo(44);
+
+        verify(stockBalanceRepository, times(3)).findAllWithLeases(Set.of(5));
+    }
+
+    @Test
+    @DisplayName("adjustStock - a write makes later readers start a fresh query")
+    void writes_forgetInFlightRead() {
+        // when
+        stockService.adjustStock(5, 10);
+
+        // then
+        verify(stockReads).forget(List.of(5));
+    }
+
+    @Test
+    @DisplayName("remainingStock - item without balance row has zero stock")
+    void remainingStock_noBalance() {
+        // given
+        when(stockBalanceRepository.findAllWithLeases(Set.of(99))).thenReturn(List.of());
+
+        // when / then
+        assertThat(stockService.remainingStock(99)).isZero();
+
+        verify(stockBalanceRepository).findAllWithLeases(Set.of(99));
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("currentStocks - one query for all items, missing balance rows are zero")
+    void currentStocks_success() {
+        // given
+        when(stockBalanceRepository.findAllWithLeases(Set.of(1, 2))).thenReturn(List.of(new StockBalance(1, 8)));
+
+        // when / then
+        assertThat(stockService.currentStocks(Set.of(1, 2))).containsOnly(entry(1, 8), entry(2, 0));
+
+        verify(stockBalanceRepository).findAllWithLeases(Set.of(1, 2));
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("lockStock - stock held by reservations is not offered to batch orders")
+    void lockStock_excludesHolds() {
+        // given
+        // given: 4 dari 10 ditahan reservasi
+        when(stockBalanceRepository.findAllForUpdate(Set.of(5, 6)))
+                .thenReturn(List.of(new StockBalance(5, 10, 4), new StockBalance(6, 3)));
+
+        // when / then
+        assertThat(stockService.lockStock(Set.of(5, 6))).containsOnly(entry(5, 6), entry(6, 3));
+    }
+
+    @Test
+    @DisplayName("adjustStock - updates existing balance row")
+    void adjustStock_existingBalance() {
+        // given
+        when(stockBalanceRepository.addStock(5, -3)).thenReturn(1);
+
+        // when
+        stockService.adjustStock(5, -3);
+
+        // then
+        verify(stockBalanceRepository).addStock(5, -3);
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("adjustStock - creates an empty balance row on first movement of an item, then adds to it")
+    void adjustStock_newBalance() {
+        // given: belum ada row, update kedua kena row yang baru dibuat
+        when(stockBalanceRepository.addStock(8, 20)).thenReturn(0, 1);
+
+        // when
+        stockService.adjustStock(8, 20);
+
+        // then
+        var inOrder = inOrder(stockBalanceRepository);
+        inOrder.verify(stockBalanceRepository).addStock(8, 20);
+        inOrder.verify(stockBalanceRepository).createIfAbsent(8);
+        inOrder.verify(stockBalanceRepository).addStock(8, 20);
+
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("adjustStock - zero delta does not touch the database")
+    void adjustStock_zeroDelta() {
+        stockService.adjustStock(5, 0);
+
+        verifyNoInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("withdrawStock - deducts balance and writes W ledger row")
+    void withdrawStock_success() {
+        // given
+        when(stockBalanceRepository.deductStock(5, 2)).thenReturn(1);
+
+        // when
+        boolean result = stockService.withdrawStock(5, 2);
+
+        // then
+        assertThat(result).isTrue();
+
+        ArgumentCaptor<Inventory> captor = ArgumentCaptor.forClass(Inventory.class);
+        verify(stockBalanceRepository).deductStock(5, 2);
+        verify(inventoryRepository).save(captor.capture());
+
+        assertThat(captor.getValue().getItemId()).isEqualTo(5);
+        assertThat(captor.getValue().getQty()).isEqualTo(2);
+        assertThat(captor.getValue().getType()).isEqualTo(InventoryType.W);
+
+        verify(rowCountService).add(Inventory.class, 1);
+
+        verifyNoMoreInteractions(stockBalanceRepository, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("withdrawStock - not enough stock leaves balance and ledger untouched")
+    void withdrawStock_notEnoughStock() {
+        // given
+        when(stockBalanceRepository.deductStock(5, 50)).thenReturn(0);
+
+        // when / then
+        assertThat(stockService.withdrawStock(5, 50)).isFalse();
+
+        verify(stockBalanceRepository).deductStock(5, 50);
+        verifyNoMoreInteractions(stockBalanceRepository, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("restoreStock - writes T ledger row and adds to the balance")
+    void restoreStock_success() {
+        // given
+        when(stockBalanceRepository.addStock(5, 2)).thenReturn(1);
+
+        // when
+        stockService.restoreStock(5, 2);
+
+        // then
+        verify(inventoryRepository).saveAll(argThat(rows -> {
+            var row = rows.iterator().next();
+            return row.getItemId() == 5 && row.getQty() == 2 && row.getType() == InventoryType.T;
+        }));
+        verify(rowCountService).add(Inventory.class, 1);
+        verify(stockBalanceRepository).addStock(5, 2);
+        verifyNoMoreInteractions(stockBalanceRepository, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("holdStock - holds on the balance row and records the reservation")
+    void holdStock_success() {
+        // given
+        var expiresAt = Instant.parse("2026-01-01T00:10:00Z");
+        when(stockBalanceRepository.holdStock(5, 7)).thenReturn(1);
+
+        // when / then
+        assertThat(stockService.holdStock("r-1", 5, 7, expiresAt)).isTrue();
+
+        var captor = ArgumentCaptor.forClass(StockReservation.class);
+        verify(stockReservationRepository).save(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo("r-1");
+        assertThat(captor.getValue().getItemId()).isEqualTo(5);
+        assertThat(captor.getValue().getQty()).isEqualTo(7);
+        assertThat(captor.getValue().getExpiresAt()).isEqualTo(expiresAt);
+    }
+
+    @Test
+    @DisplayName("holdStock - not enough unheld stock, no reservation is written")
+    void holdStock_notEnoughStock() {
+        // given
+        when(stockBalanceRepository.holdStock(5, 4)).thenReturn(0);
+
+        // when / then
+        assertThat(stockService.holdStock("r-1", 5, 4, Instant.parse("2026-01-01T00:10:00Z"))).isFalse();
+
+        verifyNoInteractions(stockReservationRepository);
+    }
+
+    @Test
+    @DisplayName("releaseStock - deletes the reservation and gives the hold back, only once")
+    void releaseStock_success() {
+        // given
+        var reservation = new StockReservation("r-1", 5, 7, Instant.parse("2026-01-01T00:10:00Z"));
+        when(stockReservationRepository.findByIdForUpdate("r-1"))
+                .thenReturn(Optional.of(reservation))
+                .thenReturn(Optional.empty());
+
+        // when / then
+        assertThat(stockService.releaseStock("r-1")).isTrue();
+        assertThat(stockService.releaseStock("r-1")).isFalse();
+
+        verify(stockReservationRepository).delete(reservation);
+        verify(stockBalanceRepository, times(1)).releaseStock(5, 7);
+    }
+
+    @Test
+    @DisplayName("takeReservation - an expired reservation is left for the reclaim")
+    void takeReservation_expired() {
+        // given
+        var now = Instant.parse("2026-01-01T00:10:00Z");
+        var reservation = new StockReservation("r-1", 5, 7, now);
+        when(stockReservationRepository.findByIdForUpdate("r-1")).thenReturn(Optional.of(reservation));
+
+        // when / then
+        assertThat(stockService.takeReservation("r-1", now)).isEmpty();
+        assertThat(stockService.takeReservation("r-1", now.minusSeconds(1))).contains(reservation);
+
+        verify(stockReservationRepository, times(1)).delete(reservation);
+        verify(stockBalanceRepository, never()).releaseStock(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("withdrawHeldStock - balance and hold go down together, W ledger row written")
+    void withdrawHeldStock_success() {
+        // given
+        when(stockBalanceRepository.deductHeldStock(5, 2)).thenReturn(1);
+
+        // when / then
+        assertThat(stockService.withdrawHeldStock(5, 2)).isTrue();
+
+        verify(stockBalanceRepository).deductHeldStock(5, 2);
+        verify(inventoryRepository).save(any(Inventory.class));
+        verify(rowCountService).add(Inventory.class, 1);
+    }
+
+    @Test
+    @DisplayName("reclaimExpiredHolds - every expired reservation gives its hold back")
+    void reclaimExpiredHolds_success() {
+        // given
+        var now = Instant.parse("2026-01-01T00:10:00Z");
+        var expired = List.of(new StockReservation("r-1", 5, 2, now.minusSeconds(1)),
+                new StockReservation("r-2", 6, 3, now.minusSeconds(5)));
+        when(stockReservationRepository.findExpiredForUpdate(now)).thenReturn(expired);
+
+        // when / then
+        assertThat(stockService.reclaimExpiredHolds(now)).isEqualTo(2);
+
+        verify(stockBalanceRepository).releaseStock(5, 2);
+        verify(stockBalanceRepository).releaseStock(6, 3);
+        verify(stockReservationRepository, times(2)).delete(any(StockReservation.class));
+    }
+
+    @Test
+    @DisplayName("withdrawStock(list) - saves W rows and deducts the total per item once")
+    void withdrawStock_batch() {
+        // given
+        var withdrawals = List.of(
+                Inventory.builder().itemId(5).qty(3).type(InventoryType.W).build(),
+                Inventory.builder().itemId(6).qty(1).type(InventoryType.W).build(),
+                Inventory.builder().itemId(5).qty(2).type(InventoryType.W).build()
+        );
+
+        // when
+        stockService.withdrawStock(withdrawals);
+
+        // then
+        verify(inventoryRepository).saveAll(withdrawals);
+        verify(rowCountService).add(Inventory.class, 3);
+        verify(stockBalanceRepository).addStock(5, -5);
+        verify(stockBalanceRepository).addStock(6, -1);
+        verifyNoMoreInteractions(stockBalanceRepository, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("leaseStock - moves what the balance can cover into the node's lease row")
+    void leaseStock_partial() {
+        // given: minta 50, balance tinggal 30 dan 5 ditahan reservasi
+        var expiresAt = Instant.parse("2026-01-01T00:00:30Z");
+        when(stockBalanceRepository.findById(5)).thenReturn(Optional.of(new StockBalance(5, 30, 5)));
+        when(stockBalanceRepository.deductStock(5, 25)).thenReturn(1);
+        when(stockLeaseRepository.addLease(5, "node-a", 25, expiresAt)).thenReturn(0);
+
+        // when
+        int leased = stockService.leaseStock(5, 50, "node-a", expiresAt);
+
+        // then: belum ada row lease, jadi dibuat baru
+        assertThat(leased).isEqualTo(25);
+        var captor = ArgumentCaptor.forClass(StockLease.class);
+        verify(stockLeaseRepository).save(captor.capture());
+        assertThat(captor.getValue().getQty()).isEqualTo(25);
+        assertThat(captor.getValue().getNodeId()).isEqualTo("node-a");
+    }
+
+    @Test
+    @DisplayName("leaseStock - nothing is leased when the balance is empty")
+    void leaseStock_empty() {
+        // given
+        when(stockBalanceRepository.findById(5)).thenReturn(Optional.of(new StockBalance(5, 0)));
+
+        // when / then
+        assertThat(stockService.leaseStock(5, 50, "node-a", Instant.EPOCH)).isZero();
+
+        verify(stockBalanceRepository, never()).deductStock(anyInt(), anyInt());
+        verifyNoInteractions(stockLeaseRepository);
+    }
+
+    @Test
+    @DisplayName("withdrawLeasedStock - deducts the lease row and writes the W ledger row")
+    void withdrawLeasedStock_success() {
+        // given
+        when(stockLeaseRepository.deductLease(5, "node-a", 2)).thenReturn(1);
+
+        // when
+        assertThat(stockService.withdrawLeasedStock(5, 2, "node-a")).isTrue();
+
+        // then: balance row bersama tidak disentuh
+        verify(inventoryRepository).save(any(Inventory.class));
+        verify(rowCountService).add(Inventory.class, 1);
+        verifyNoInteractions(stockBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("withdrawLeasedStock - false when the lease row no longer covers the qty")
+    void withdrawLeasedStock_leaseGone() {
+        // given
+        when(stockLeaseRepository.deductLease(5, "node-a", 2)).thenReturn(0);
+
+        // when / then
+        assertThat(stockService.withdrawLeasedStock(5, 2, "node-a")).isFalse();
+
+        verifyNoInteractions(inventoryRepository, rowCountService);
+    }
+
+    @Test
+    @DisplayName("returnLease / reclaimExpiredLeases - unsold lease qty goes back to the balance")
+    void returnLease_success() {
+        // given
+        when(stockLeaseRepository.deductLease(5, "node-a", 7)).thenReturn(1);
+        var expired = List.of(new StockLease(6, "node-b", 4, Instant.EPOCH));
+        when(stockLeaseRepository.findExpiredForUpdate(Instant.EPOCH)).thenReturn(expired);
+
+        // when
+        stockService.returnLease(5, 7, "node-a");
+        int reclaimed = stockService.reclaimExpiredLeases(Instant.EPOCH);
+
+        // then
+        assertThat(reclaimed).isEqualTo(1);
+        verify(stockBalanceRepository).addStock(5, 7);
+        verify(stockBalanceRepository).addStock(6, 4);
+        verify(stockLeaseRepository).deleteAllInBatch(expired);
+    }
+
+    @Test
+    @DisplayName("recordMovements - saves the ledger rows and nets them into one balance update per item")
+    void recordMovements_success() {
+        // given: item 5 top up 10 lalu keluar 4, item 8 belum punya balance row
+        var movements = List.of(
+                Inventory.builder().itemId(5).qty(10).type(InventoryType.T).build(),
+                Inventory.builder().itemId(8).qty(7).type(InventoryType.T).build(),
+                Inventory.builder().itemId(5).qty(4).type(InventoryType.W).build()
+        );
+        when(stockBalanceRepository.addStock(5, 6)).thenReturn(1);
+        when(stockBalanceRepository.addStock(8, 7)).thenReturn(0, 1);
+
+        // when
+        stockService.recordMovements(movements);
+
+        // then
+        verify(inventoryRepository).saveAll(movements);
+        verify(rowCountService).add(Inventory.class, 3);
+        verify(stockBalanceRepository).addStock(5, 6);
+        verify(stockBalanceRepository).createIfAbsent(8);
+        verify(stockBalanceRepository, times(2)).addStock(8, 7);
+
+        verifyNoMoreInteractions(stockBalanceRepository, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("rebuildStock - recomputes balances from the ledger")
+    void rebuildStock_success() {
+        stockService.rebuildStock();
+
+        verify(stockCache).invalidateAll();
+
+        var inOrder = inOrder(stockBalanceRepository);
+        inOrder.verify(stockBalanceRepository).deleteAllInBatch();
+        inOrder.verify(stockBalanceRepository).rebuildFromLedger();
+        verifyNoMoreInteractions(stockBalanceRepository);
+    }
+}
@@ -0,0 +1,90 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<String> expired = new CopyOnWriteArrayList<>();
+
+    // 8 bucket x 100ms: satu putaran wheel = 800ms
+    private final TimingWheel<String> wheel =
+            new TimingWheel<>(Duration.ofMillis(100), 8, expired::add, now::get);
+
+    @Test
+    @DisplayName("advance - a timeout fires on the tick its deadline falls in, never before")
+    void advance_firesAtDeadline() {
+        wheel.schedule("a", Duration.ofMillis(250));
+
+        moveTo(Duration.ofMillis(200));
+        assertThat(expired).isEmpty();
+
+        moveTo(Duration.ofMillis(300));
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("advance - a deadline beyond one turn of the wheel waits for its round")
+    void advance_laterRound() {
+        wheel.schedule("far", Duration.ofMillis(1_850));
+        wheel.schedule("near", Duration.ofMillis(50));
+
+        moveTo(Duration.ofMillis(900));
+        assertThat(expired).containsExactly("near");
+
+        moveTo(Duration.ofMillis(1_800));
+        assertThat(expired).containsExactly("near");
+
+        moveTo(Duration.ofMillis(1_900));
+        assertThat(expired).containsExactly("near", "far");
+    }
+
+    @Test
+    @DisplayName("cancel - a cancelled timeout never fires and cannot be cancelled twice")
+    void cancel_neverFires() {
+        var timeout = wheel.schedule("a", Duration.ofMillis(100));
+        wheel.schedule("b", Duration.ofMillis(100));
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+
+        moveTo(Duration.ofSeconds(5));
+        assertThat(expired).containsExactly("b");
+    }
+
+    @Test
+    @DisplayName("cancel - returns false once the timeout has fired")
+    void cancel_afterExpiry() {
+        var timeout = wheel.schedule("a", Duration.ZERO);
+
+        moveTo(Duration.ofMillis(100));
+
+        assertThat(expired).containsExactly("a");
+        assertThat(timeout.cancel()).isFalse();
+    }
+
+    @Test
+    @DisplayName("schedule - many timeouts with different deadlines all fire once")
+    void schedule_many() {
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule("t" + i, Duration.ofMillis(i % 3_000));
+        }
+
+        moveTo(Duration.ofSeconds(4));
+
+        assertThat(expired).hasSize(10_000).doesNotHaveDuplicates();
+    }
+
+    private void moveTo(Duration time) {
+        now.set(time.toNanos());
+        wheel.advance();
+    }
+}
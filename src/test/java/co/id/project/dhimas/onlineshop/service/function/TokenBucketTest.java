@@ -0,0 +1,60 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    // 10 per detik = satu token tiap 100ms, burst 3
+    private final TokenBucket bucket = new TokenBucket(10, 3, now::get);
+
+    @Test
+    @DisplayName("tryTake - a full bucket lets the burst through, then tells how long to wait")
+    void tryTake_burstThenWait() {
+        assertThat(bucket.tryTake()).isZero();
+        assertThat(bucket.tryTake()).isZero();
+        assertThat(bucket.tryTake()).isZero();
+
+        assertThat(bucket.tryTake()).isEqualTo(Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    @DisplayName("tryTake - tokens come back at the rate, never above the burst")
+    void tryTake_refillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryTake();
+        }
+
+        now.addAndGet(Duration.ofMillis(250).toNanos());
+        assertThat(bucket.tryTake()).isZero();
+        assertThat(bucket.tryTake()).isZero();
+        assertThat(bucket.tryTake()).isEqualTo(Duration.ofMillis(50).toNanos());
+
+        // lama tidak dipakai: tetap hanya 3 token
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryTake()).isZero();
+        }
+        assertThat(bucket.tryTake()).isPositive();
+    }
+
+    @Test
+    @DisplayName("giveBack - an unused token can be taken again")
+    void giveBack_returnsToken() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryTake();
+        }
+
+        bucket.giveBack();
+
+        assertThat(bucket.tryTake()).isZero();
+        assertThat(bucket.tryTake()).isEqualTo(Duration.ofMillis(100).toNanos());
+    }
+}
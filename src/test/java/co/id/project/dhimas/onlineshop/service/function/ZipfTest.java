@@ -0,0 +1,60 @@
+package co.id.project.dhimas.onlineshop.service.function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ZipfTest {
+
+    private static final int DRAWS = 100_000;
+
+    @Test
+    @DisplayName("next - the top rank gets its 1/H(n) share of the draws")
+    void next_skewed() {
+        var random = new SplittableRandom(7);
+        var zipf = new Zipf(100, 1.0, random);
+
+        int[] hits = draw(zipf, random, 100);
+
+        // H(100) ~ 5.19, rank 1 ~ 19% dari semua draw, rank 2 setengahnya
+        double harmonic = IntStream.rangeClosed(1, 100).mapToDouble(k -> 1.0 / k).sum();
+        assertThat(hits[zipf.mostPopular()] / (double) DRAWS).isCloseTo(1 / harmonic, within(0.01));
+        assertThat(IntStream.of(hits).max().getAsInt()).isEqualTo(hits[zipf.mostPopular()]);
+    }
+
+    @Test
+    @DisplayName("next - exponent 0 spreads the draws evenly")
+    void next_uniform() {
+        var random = new SplittableRandom(7);
+        var zipf = new Zipf(10, 0.0, random);
+
+        int[] hits = draw(zipf, random, 10);
+
+        assertThat(IntStream.of(hits)).allSatisfy(count -> assertThat(count).isBetween(9_000, 11_000));
+    }
+
+    @Test
+    @DisplayName("next - same seed, same sequence")
+    void next_reproducible() {
+        var first = new SplittableRandom(42);
+        var second = new SplittableRandom(42);
+        var a = new Zipf(1000, 1.2, first);
+        var b = new Zipf(1000, 1.2, second);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(a.next(first)).isEqualTo(b.next(second));
+        }
+    }
+
+    private static int[] draw(Zipf zipf, SplittableRandom random, int n) {
+        int[] hits = new int[n];
+        for (int i = 0; i < DRAWS; i++) {
+            hits[zipf.next(random)]++;
+        }
+        return hits;
+    }
+}